@@ -17,6 +17,12 @@ dependencies {
     implementation("org.projectlombok:lombok:1.18.26");
 }
 
+// DayBaseVectorKernel uses the Vector API, an incubator module on Java 17
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
 tasks.test {
     useJUnitPlatform()
+    jvmArgs("--add-modules", "jdk.incubator.vector")
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package org.example.constant;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable lookup tables of the relevant income limits and the maximum contribution of day-based periods,
+ * indexed by the number of days in the period, and the maximum contribution of a calendar month.
+ * A table is built once per rate version, see MPFCalculatorConstants.THRESHOLDS.
+ */
+public final class ContributionThresholds {
+    private final int rateVersion;
+    private final BigDecimal minDay;
+    private final BigDecimal maxDay;
+    private final BigDecimal ratio;
+    private final BigDecimal[] minRelevantIncome;
+    private final BigDecimal[] maxRelevantIncome;
+    private final BigDecimal[] maxContribution;
+    private final BigDecimal maxCalendarMonthContribution;
+
+    /**
+     * @param rateVersion version of the rates
+     * @param minDay minimum relevant income of a day
+     * @param maxDay maximum relevant income of a day
+     * @param ratio contribution ratio
+     * @param maxDays the largest day count in the tables
+     * @param maxCalendarMonth maximum relevant income of a calendar month
+     */
+    public ContributionThresholds(int rateVersion, BigDecimal minDay, BigDecimal maxDay, BigDecimal ratio,
+                                  int maxDays, BigDecimal maxCalendarMonth) {
+        this.rateVersion = rateVersion;
+        this.minDay = minDay;
+        this.maxDay = maxDay;
+        this.ratio = ratio;
+        this.minRelevantIncome = new BigDecimal[maxDays + 1];
+        this.maxRelevantIncome = new BigDecimal[maxDays + 1];
+        this.maxContribution = new BigDecimal[maxDays + 1];
+        for (int days = 0; days <= maxDays; days++) {
+            BigDecimal diff = BigDecimal.valueOf(days);
+            minRelevantIncome[days] = minDay.multiply(diff);
+            maxRelevantIncome[days] = maxDay.multiply(diff);
+            maxContribution[days] = maxDay.multiply(diff).multiply(ratio);
+        }
+        this.maxCalendarMonthContribution = maxCalendarMonth.multiply(ratio);
+    }
+
+    public int getRateVersion() {
+        return rateVersion;
+    }
+
+    /**
+     * Get the minimum relevant income of a period.
+     * @param days the days in the period
+     */
+    public BigDecimal minRelevantIncome(long days) {
+        return days >= 0 && days < minRelevantIncome.length
+                ? minRelevantIncome[(int) days]
+                : minDay.multiply(BigDecimal.valueOf(days));
+    }
+
+    /**
+     * Get the maximum relevant income of a period.
+     * @param days the days in the period
+     */
+    public BigDecimal maxRelevantIncome(long days) {
+        return days >= 0 && days < maxRelevantIncome.length
+                ? maxRelevantIncome[(int) days]
+                : maxDay.multiply(BigDecimal.valueOf(days));
+    }
+
+    /**
+     * Get the maximum contribution of a period.
+     * @param days the days in the period
+     */
+    public BigDecimal maxContribution(long days) {
+        return days >= 0 && days < maxContribution.length
+                ? maxContribution[(int) days]
+                : maxDay.multiply(BigDecimal.valueOf(days)).multiply(ratio);
+    }
+
+    /**
+     * Get the maximum contribution of a calendar month.
+     */
+    public BigDecimal getMaxCalendarMonthContribution() {
+        return maxCalendarMonthContribution;
+    }
+}
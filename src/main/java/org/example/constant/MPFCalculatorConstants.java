@@ -42,6 +42,17 @@ public class MPFCalculatorConstants {
     public static final BigDecimal G_INT_MIN_CALENDAR_MONTH = new BigDecimal("7100");
     public static final BigDecimal G_INT_MAX_CALENDAR_MONTH = new BigDecimal("30000");
 
+    // Version of the contribution ratio and limits above, the threshold tables are built once per version
+    public static final int RATE_VERSION = 1;
+    public static final int G_INT_MAX_PERIOD_DAYS = 31;
+    public static final ContributionThresholds THRESHOLDS = new ContributionThresholds(
+            RATE_VERSION, G_INT_MIN_DAY, G_INT_MAX_DAY, FLOAT_RATIO, G_INT_MAX_PERIOD_DAYS, G_INT_MAX_CALENDAR_MONTH
+    );
+
+    // Version of the period calculation, increase it when a change gives different schedules for the same input
+    // so persisted schedules of the old version are not reused
+    public static final int ENGINE_VERSION = 3;
+
     private MPFCalculatorConstants() {
         // Private constructor to prevent instantiation
     }
@@ -32,6 +32,15 @@ public class ContributionPeriod {
         return this;
     }
 
+    /**
+     * Get a copy whose setters throw UnsupportedOperationException, e.g. for a period shared by cached schedules.
+     * @param period the period
+     * @return the copy, the period itself if it is unmodifiable already
+     */
+    public static ContributionPeriod unmodifiableCopy(ContributionPeriod period) {
+        return period instanceof Unmodifiable ? period : new Unmodifiable(period.getStartDate(), period.getEndDate());
+    }
+
     @Override
     public String toString() {
         return "ContributionPeriod{" +
@@ -43,7 +52,7 @@ public class ContributionPeriod {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof ContributionPeriod)) return false;
         
         ContributionPeriod that = (ContributionPeriod) o;
         
@@ -57,4 +66,20 @@ public class ContributionPeriod {
         result = 31 * result + endDate.hashCode();
         return result;
     }
+
+    private static final class Unmodifiable extends ContributionPeriod {
+        private Unmodifiable(LocalDate startDate, LocalDate endDate) {
+            super(startDate, endDate);
+        }
+
+        @Override
+        public ContributionPeriod setStartDate(LocalDate startDate) {
+            throw new UnsupportedOperationException("the period is unmodifiable");
+        }
+
+        @Override
+        public ContributionPeriod setEndDate(LocalDate endDate) {
+            throw new UnsupportedOperationException("the period is unmodifiable");
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package org.example.dto;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ContributionPeriodMore {
@@ -19,6 +21,29 @@ public class ContributionPeriodMore {
         return periodMore;
     }
 
+    /**
+     * Get the number of regular and extra periods.
+     */
+    public int size() {
+        return period.size() + periodMore.size();
+    }
+
+    /**
+     * Get the index of the first extra period in the combined view, i.e. the number of regular periods.
+     */
+    public int getBoundary() {
+        return period.size();
+    }
+
+    /**
+     * Get a period of the combined view.
+     * @param index index of the regular periods followed by the extra periods
+     */
+    public ContributionPeriod get(int index) {
+        int boundary = period.size();
+        return index < boundary ? period.get(index) : periodMore.get(index - boundary);
+    }
+
     public ContributionPeriodMore setPeriod(List<ContributionPeriod> period) {
         this.period = period;
         return this;
@@ -29,6 +54,28 @@ public class ContributionPeriodMore {
         return this;
     }
 
+    /**
+     * Get a deep copy which cannot be changed: the lists are unmodifiable and the setters of the schedule
+     * and of its periods throw UnsupportedOperationException. Used for schedules shared by cached or
+     * coalesced calculations.
+     * @param schedule the schedule
+     * @return the copy, the schedule itself if it is unmodifiable already
+     */
+    public static ContributionPeriodMore unmodifiableCopy(ContributionPeriodMore schedule) {
+        if (schedule instanceof Unmodifiable) {
+            return schedule;
+        }
+        return new Unmodifiable(unmodifiableCopy(schedule.getPeriod()), unmodifiableCopy(schedule.getPeriodMore()));
+    }
+
+    private static List<ContributionPeriod> unmodifiableCopy(List<ContributionPeriod> periods) {
+        List<ContributionPeriod> copy = new ArrayList<>(periods.size());
+        for (ContributionPeriod p : periods) {
+            copy.add(ContributionPeriod.unmodifiableCopy(p));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
     @Override
     public String toString() {
         return "ContributionPeriodMore{" +
@@ -40,7 +87,7 @@ public class ContributionPeriodMore {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof ContributionPeriodMore)) return false;
 
         ContributionPeriodMore that = (ContributionPeriodMore) o;
 
@@ -54,4 +101,20 @@ public class ContributionPeriodMore {
         result = 31 * result + periodMore.hashCode();
         return result;
     }
+
+    private static final class Unmodifiable extends ContributionPeriodMore {
+        private Unmodifiable(List<ContributionPeriod> period, List<ContributionPeriod> periodMore) {
+            super(period, periodMore);
+        }
+
+        @Override
+        public ContributionPeriodMore setPeriod(List<ContributionPeriod> period) {
+            throw new UnsupportedOperationException("the schedule is unmodifiable");
+        }
+
+        @Override
+        public ContributionPeriodMore setPeriodMore(List<ContributionPeriod> periodMore) {
+            throw new UnsupportedOperationException("the schedule is unmodifiable");
+        }
+    }
 }
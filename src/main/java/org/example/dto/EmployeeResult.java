@@ -0,0 +1,58 @@
+package org.example.dto;
+
+import java.util.List;
+
+/**
+ * The employee and employer amounts of one employee in a roster run
+ */
+public class EmployeeResult {
+    private final String employeeId;
+    private final List<MPFAmtResult> eeResults;
+    private final List<MPFAmtResult> erResults;
+
+    public EmployeeResult(String employeeId, List<MPFAmtResult> eeResults, List<MPFAmtResult> erResults) {
+        this.employeeId = employeeId;
+        this.eeResults = eeResults;
+        this.erResults = erResults;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public List<MPFAmtResult> getEeResults() {
+        return eeResults;
+    }
+
+    public List<MPFAmtResult> getErResults() {
+        return erResults;
+    }
+
+    /**
+     * from result to output lines, one line per contribution period
+     * layout: employeeId,periodStart,periodEnd,salary,eeAmount,erAmount
+     */
+    public String toCsv() {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < erResults.size(); i++) {
+            MPFAmtResult ee = eeResults.get(i);
+            MPFAmtResult er = erResults.get(i);
+            lines.append(employeeId).append(',')
+                    .append(er.getContributionPeriod().getStartDate()).append(',')
+                    .append(er.getContributionPeriod().getEndDate()).append(',')
+                    .append(er.getSalary().toPlainString()).append(',')
+                    .append(ee.getAmount().toPlainString()).append(',')
+                    .append(er.getAmount().toPlainString()).append('\n');
+        }
+        return lines.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeResult{" +
+                "employeeId='" + employeeId + '\'' +
+                ", eeResults=" + eeResults +
+                ", erResults=" + erResults +
+                '}';
+    }
+}
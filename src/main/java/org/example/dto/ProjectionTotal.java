@@ -0,0 +1,58 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totals of a career-long contribution projection of one employee
+ */
+public class ProjectionTotal {
+    private final int periodCount;
+    private final LocalDate lastPeriodEnd;
+    private final BigDecimal eeTotal;
+    private final BigDecimal erTotal;
+
+    public ProjectionTotal(int periodCount, LocalDate lastPeriodEnd, BigDecimal eeTotal, BigDecimal erTotal) {
+        this.periodCount = periodCount;
+        this.lastPeriodEnd = lastPeriodEnd;
+        this.eeTotal = eeTotal;
+        this.erTotal = erTotal;
+    }
+
+    public int getPeriodCount() {
+        return periodCount;
+    }
+
+    public LocalDate getLastPeriodEnd() {
+        return lastPeriodEnd;
+    }
+
+    public BigDecimal getEeTotal() {
+        return eeTotal;
+    }
+
+    public BigDecimal getErTotal() {
+        return erTotal;
+    }
+
+    /**
+     * from totals to an output row: employeeId,periodCount,lastPeriodEnd,eeTotal,erTotal
+     */
+    public String toCsv(String employeeId) {
+        return employeeId + "," +
+                periodCount + "," +
+                (lastPeriodEnd == null ? "" : lastPeriodEnd) + "," +
+                eeTotal.toPlainString() + "," +
+                erTotal.toPlainString() + "\n";
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionTotal{" +
+                "periodCount=" + periodCount +
+                ", lastPeriodEnd=" + lastPeriodEnd +
+                ", eeTotal=" + eeTotal +
+                ", erTotal=" + erTotal +
+                '}';
+    }
+}
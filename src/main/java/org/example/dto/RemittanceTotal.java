@@ -0,0 +1,54 @@
+package org.example.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totals of one contribution period in an employer's remittance statement
+ */
+public class RemittanceTotal {
+    private final LocalDate periodStart;
+    private final BigDecimal eeAmount;
+    private final BigDecimal erAmount;
+    private final BigDecimal relevantIncome;
+    private final int headcount;
+
+    public RemittanceTotal(LocalDate periodStart, BigDecimal eeAmount, BigDecimal erAmount, BigDecimal relevantIncome, int headcount) {
+        this.periodStart = periodStart;
+        this.eeAmount = eeAmount;
+        this.erAmount = erAmount;
+        this.relevantIncome = relevantIncome;
+        this.headcount = headcount;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public BigDecimal getEeAmount() {
+        return eeAmount;
+    }
+
+    public BigDecimal getErAmount() {
+        return erAmount;
+    }
+
+    public BigDecimal getRelevantIncome() {
+        return relevantIncome;
+    }
+
+    public int getHeadcount() {
+        return headcount;
+    }
+
+    @Override
+    public String toString() {
+        return "RemittanceTotal{" +
+                "periodStart=" + periodStart +
+                ", eeAmount=" + eeAmount +
+                ", erAmount=" + erAmount +
+                ", relevantIncome=" + relevantIncome +
+                ", headcount=" + headcount +
+                '}';
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.dto;
+
+import org.example.enums.PayrollFrequency;
+import org.example.util.logic.DayBaseKernel;
+import org.example.util.logic.MPFDateCalculatorConfig;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.OptionalLong;
+
+/**
+ * One employee of a roster file.
+ * CSV layout: employeeId,frequency,dateOfBirth,dateOfEmployment,endOfEmployment,morePeriod,cycle,salary
+ * where cycle is the weekly cycle day (e.g. SUNDAY), the fortnightly start date or the non-calendar month
+ * start day depending on the frequency. Optional columns are left empty.
+ */
+public class RosterRecord {
+    private final String employeeId;
+    private final PayrollFrequency frequency;
+    private final MPFDateCalculatorConfig config;
+    private final BigDecimal salary;
+
+    /**
+     * @throws IllegalArgumentException if the salary has more than 2 decimal places, whole cents are
+     * required by both the BigDecimal and the fixed-point calculation
+     */
+    public RosterRecord(String employeeId, PayrollFrequency frequency, MPFDateCalculatorConfig config, BigDecimal salary) {
+        if (salary.stripTrailingZeros().scale() > DayBaseKernel.SALARY_SCALE) {
+            throw new IllegalArgumentException("salary of employee " + employeeId + " has more than "
+                    + DayBaseKernel.SALARY_SCALE + " decimal places: " + salary.toPlainString());
+        }
+        this.employeeId = employeeId;
+        this.frequency = frequency;
+        this.config = config;
+        this.salary = salary;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public PayrollFrequency getFrequency() {
+        return frequency;
+    }
+
+    public MPFDateCalculatorConfig getConfig() {
+        return config;
+    }
+
+    public BigDecimal getSalary() {
+        return salary;
+    }
+
+    /**
+     * parse a roster line
+     * @param line the csv line
+     * @return the record
+     */
+    public static RosterRecord parse(String line) {
+        String[] c = line.split(",", -1);
+        if (c.length != 8) {
+            throw new IllegalArgumentException("Invalid roster line: " + line);
+        }
+        PayrollFrequency frequency = PayrollFrequency.valueOf(c[1].trim());
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig(
+                LocalDate.parse(c[2].trim()),
+                LocalDate.parse(c[3].trim())
+        );
+        if (!c[4].isBlank()) {
+            config.setEndOfEmployment(LocalDate.parse(c[4].trim()));
+        }
+        if (!c[5].isBlank()) {
+            config.setMorePeriod(OptionalLong.of(Long.parseLong(c[5].trim())));
+        }
+        if (!c[6].isBlank()) {
+            switch (frequency) {
+                case WEEKLY -> config.setWeeklyCycle(DayOfWeek.valueOf(c[6].trim()));
+                case FORTNIGHTLY -> config.setPryllFnightStartDate(LocalDate.parse(c[6].trim()));
+                case NON_CALENDAR_MONTH -> config.setNonCalStartDay(Integer.parseInt(c[6].trim()));
+                case MONTHLY, SEMI_MONTHLY -> {
+                    // no cycle for these frequencies
+                }
+            }
+        }
+        return new RosterRecord(c[0].trim(), frequency, config, new BigDecimal(c[7].trim()));
+    }
+
+    /**
+     * from record to roster line
+     */
+    public String toCsv() {
+        String cycle = switch (frequency) {
+            case WEEKLY -> config.getWeeklyCycle() == null ? "" : config.getWeeklyCycle().name();
+            case FORTNIGHTLY -> config.getPryllFnightStartDate() == null ? "" : config.getPryllFnightStartDate().toString();
+            case NON_CALENDAR_MONTH -> config.getNonCalStartDay() == null ? "" : config.getNonCalStartDay().toString();
+            case MONTHLY, SEMI_MONTHLY -> "";
+        };
+        return employeeId + "," +
+                frequency.name() + "," +
+                config.getDateOfBirth() + "," +
+                config.getDateOfEmployment() + "," +
+                (config.getEndOfEmployment() == null ? "" : config.getEndOfEmployment()) + "," +
+                (config.getMorePeriod().isPresent() ? config.getMorePeriod().getAsLong() : "") + "," +
+                cycle + "," +
+                salary.toPlainString();
+    }
+
+    @Override
+    public String toString() {
+        return "RosterRecord{" + toCsv() + "}";
+    }
+}
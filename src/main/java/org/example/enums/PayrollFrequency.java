@@ -3,6 +3,7 @@ package org.example.enums;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.function.Function;
+import org.example.util.logic.CalculatorPool;
 import org.example.util.logic.MPFPayrollDateCalculatorLogic;
 import org.example.util.logic.MPFMonDateCalculator;
 import org.example.util.logic.MPFNonCalendarMonDateCalculator;
@@ -12,7 +13,7 @@ import org.example.util.logic.MPFWeeklyDateCalculator;
 
 /**
  * Payroll Frequency Types for MPF Contribution Calculation
- * if it needs to improve the performance, change to instance clone in the factory function.
+ * Calculators are pooled per frequency, see getCalculator() and releaseCalculator().
  */
 public enum PayrollFrequency {
     MONTHLY(1, "Calendar month", MPFMonDateCalculator::new),
@@ -24,11 +25,13 @@ public enum PayrollFrequency {
     private final int value;
     private final String description;
     private final Function<List<LocalDate>, MPFPayrollDateCalculatorLogic> calculatorFactory;
+    private final CalculatorPool calculatorPool;
 
     PayrollFrequency(int value, String description, Function<List<LocalDate>, MPFPayrollDateCalculatorLogic> calculatorFactory) {
         this.value = value;
         this.description = description;
         this.calculatorFactory = calculatorFactory;
+        this.calculatorPool = new CalculatorPool(calculatorFactory);
     }
 
     public int getValue() {
@@ -49,13 +52,36 @@ public enum PayrollFrequency {
     }
 
     /**
-     * Creates and returns the appropriate MPFPayrollDateCalculatorLogic child class instance
-     * based on the payroll frequency type using pre-stored factory function.
+     * Returns the appropriate MPFPayrollDateCalculatorLogic child class instance
+     * based on the payroll frequency type, an idle pooled calculator of the same holidays is reused,
+     * otherwise one is created by the pre-stored factory function.
+     * Give the calculator back by releaseCalculator() when it is not used any more, a calculator which is
+     * not given back is simply garbage collected.
      * 
      * @param publicHolidays List of public holidays to be used in calculations
-     * @return The corresponding calculator instance
+     * @return The corresponding calculator instance, not configured
      */
     public MPFPayrollDateCalculatorLogic getCalculator(List<LocalDate> publicHolidays) {
+        return calculatorPool.acquire(publicHolidays);
+    }
+
+    /**
+     * Creates a new calculator which is not taken from the pool.
+     *
+     * @param publicHolidays List of public holidays to be used in calculations
+     * @return The corresponding calculator instance
+     */
+    public MPFPayrollDateCalculatorLogic newCalculator(List<LocalDate> publicHolidays) {
         return calculatorFactory.apply(publicHolidays);
     }
+
+    /**
+     * Reset a calculator returned by getCalculator() and give it back to the pool.
+     * The calculator must not be used after it is released.
+     *
+     * @param calculator the calculator of this payroll frequency
+     */
+    public void releaseCalculator(MPFPayrollDateCalculatorLogic calculator) {
+        calculatorPool.release(calculator);
+    }
 }
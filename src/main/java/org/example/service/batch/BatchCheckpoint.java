@@ -0,0 +1,137 @@
+package org.example.service.batch;
+
+import org.example.util.logic.RemittanceAggregator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Progress of a batch run journaled to a local file: the number of employees whose rows are committed to
+ * the output, the length of the output at that point and the remittance totals of those employees.
+ * The journal is written next to the target and moved in place, so a crash leaves either the old or the
+ * new checkpoint, never a partial one.
+ *
+ * Journal layout, big-endian:
+ * <pre>
+ * int   magic "MPFJ"
+ * int   format version
+ * long  CRC32 of the roster file
+ * long  number of committed employees
+ * long  output length in bytes
+ *       the totals, see RemittanceAggregator.writeTo()
+ * long  CRC32 of everything before
+ * </pre>
+ */
+public class BatchCheckpoint {
+
+    private static final int MAGIC = 0x4D50464A; // "MPFJ"
+    private static final int FORMAT_VERSION = 1;
+
+    private final long rosterChecksum;
+    private final long committedEmployees;
+    private final long outputLength;
+    private final RemittanceAggregator totals;
+
+    public BatchCheckpoint(long rosterChecksum, long committedEmployees, long outputLength, RemittanceAggregator totals) {
+        this.rosterChecksum = rosterChecksum;
+        this.committedEmployees = committedEmployees;
+        this.outputLength = outputLength;
+        this.totals = totals;
+    }
+
+    public long getRosterChecksum() {
+        return rosterChecksum;
+    }
+
+    public long getCommittedEmployees() {
+        return committedEmployees;
+    }
+
+    public long getOutputLength() {
+        return outputLength;
+    }
+
+    public RemittanceAggregator getTotals() {
+        return totals;
+    }
+
+    /**
+     * Read a journal.
+     * @param journal the journal file
+     * @return the checkpoint, null if there is no journal
+     * @throws IllegalStateException if the journal is corrupted
+     */
+    public static BatchCheckpoint read(Path journal) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(journal)), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("not a batch journal: " + journal);
+            }
+            BatchCheckpoint checkpoint = new BatchCheckpoint(
+                    in.readLong(),
+                    in.readLong(),
+                    in.readLong(),
+                    RemittanceAggregator.readFrom(in)
+            );
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IllegalStateException("batch journal checksum mismatch: " + journal);
+            }
+            return checkpoint;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the checkpoint to a journal and sync it to the disk before it replaces the previous one.
+     * @param journal the journal file
+     */
+    public void write(Path journal) throws IOException {
+        Path tmp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            // the stream is not closed, closing it would close the channel before force()
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(rosterChecksum);
+            out.writeLong(committedEmployees);
+            out.writeLong(outputLength);
+            totals.writeTo(out);
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * CRC32 of a roster file, a journal is only resumed with the roster it was written for.
+     */
+    public static long checksum(Path roster) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(roster)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.service.batch;
+
+import org.example.dto.EmployeeResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Writes the results of a publisher as csv lines, see EmployeeResult.toCsv(). The next result is requested
+ * only after the previous one is written, so a slow writer holds back the publisher.
+ */
+public class CsvResultSubscriber implements Flow.Subscriber<EmployeeResult> {
+
+    private final Writer writer;
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private int count;
+
+    /**
+     * @param writer the output, flushed but not closed at the end
+     */
+    public CsvResultSubscriber(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Get the number of employees written, completed exceptionally if the publisher or the writer failed.
+     */
+    public CompletableFuture<Integer> getResult() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(EmployeeResult item) {
+        try {
+            writer.write(item.toCsv());
+        } catch (IOException e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+            return;
+        }
+        count++;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        try {
+            writer.flush();
+            result.complete(count);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
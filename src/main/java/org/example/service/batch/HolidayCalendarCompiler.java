@@ -0,0 +1,37 @@
+package org.example.service.batch;
+
+import org.example.util.logic.HolidayCalendar;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compiles a text holiday file, one ISO date per line, to the binary calendar memory-mapped by HolidayCalendar.
+ * The compiled file can be passed to RosterBatchRunner, ShardCoordinator and CalHttpServer instead of the text file.
+ */
+public class HolidayCalendarCompiler {
+
+    /**
+     * args: source target
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: HolidayCalendarCompiler <source> <target>");
+            System.exit(2);
+        }
+        try {
+            List<LocalDate> holidays = RosterBatchRunner.readHolidays(Path.of(args[0]));
+            Path target = Path.of(args[1]);
+            HolidayCalendar.compile(holidays, target);
+            HolidayCalendar calendar = HolidayCalendar.open(target).verify();
+            if (!calendar.equals(holidays.stream().sorted().distinct().toList())) {
+                throw new IllegalStateException("compiled calendar differs from " + args[0]);
+            }
+            System.out.println("Compiled holidays: " + calendar.size() + ", version " + calendar.getVersion());
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.example.service.batch;
+
+import org.example.dto.EmployeeResult;
+import org.example.dto.RosterRecord;
+import org.example.service.export.CalService;
+import org.example.util.intf.SalaryGrowthFunction;
+import org.example.util.logic.AmountRecordSink;
+import org.example.util.logic.DayBaseKernel;
+import org.example.util.logic.HolidayCalendar;
+import org.example.util.logic.MPFDateCalculatorConfig;
+import org.example.util.logic.RemittanceAggregator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Calculates the amounts of every employee in a roster file and writes them to an output file
+ * sorted by employee id. It is also the entry point of a shard process started by ShardCoordinator.
+ */
+public class RosterBatchRunner {
+
+    private final CalService calService;
+
+    public RosterBatchRunner(List<LocalDate> holidays) {
+        this(new CalService(holidays));
+    }
+
+    public RosterBatchRunner(CalService calService) {
+        this.calService = calService;
+    }
+
+    /**
+     * Calculate a roster file.
+     *
+     * @param roster the roster file
+     * @param output the output file, rows are sorted by employee id
+     * @return the number of employees calculated
+     */
+    public int run(Path roster, Path output) throws Exception {
+        List<RosterRecord> records = readRoster(roster);
+        records.sort(Comparator.comparing(RosterRecord::getEmployeeId));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            for (RosterRecord record : records) {
+                try {
+                    writer.write(calService.calculateAmount(record).toCsv());
+                } catch (Exception e) {
+                    throw new IllegalStateException("calculation failed for employee " + record.getEmployeeId(), e);
+                }
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * Calculate a roster file and journal the progress, so a failed run can be started again and resume.
+     * Every interval employees the output is synced to the disk and a checkpoint with the number of employees
+     * written, the output length and the remittance totals so far is written to the journal. A run with an
+     * existing journal truncates the output to the length of the checkpoint, dropping the rows written after
+     * it, and continues with the next employee, so no row is duplicated or lost. The journal is deleted when
+     * the run completes.
+     *
+     * @param roster the roster file, must not change between the failed run and the resumed one
+     * @param output the output file, rows are sorted by employee id
+     * @param journal the journal file
+     * @param interval the number of employees between checkpoints
+     * @return the remittance totals of the whole roster
+     * @throws IllegalStateException if the journal was written for another roster or the output is shorter than the checkpoint
+     */
+    public RemittanceAggregator runCheckpointed(Path roster, Path output, Path journal, int interval) throws Exception {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be a positive number");
+        }
+        List<RosterRecord> records = readRoster(roster);
+        records.sort(Comparator.comparing(RosterRecord::getEmployeeId));
+
+        long rosterChecksum = BatchCheckpoint.checksum(roster);
+        BatchCheckpoint checkpoint = BatchCheckpoint.read(journal);
+        if (checkpoint != null && checkpoint.getRosterChecksum() != rosterChecksum) {
+            throw new IllegalStateException("journal " + journal + " was written for another roster");
+        }
+        int offset = checkpoint != null ? Math.toIntExact(checkpoint.getCommittedEmployees()) : 0;
+        RemittanceAggregator totals = checkpoint != null ? checkpoint.getTotals() : new RemittanceAggregator();
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long committedLength = checkpoint != null ? checkpoint.getOutputLength() : 0;
+            if (channel.size() < committedLength) {
+                throw new IllegalStateException("output " + output + " is shorter than the checkpoint");
+            }
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+
+            for (int i = offset; i < records.size(); i++) {
+                RosterRecord record = records.get(i);
+                EmployeeResult result;
+                try {
+                    result = calService.calculateAmount(record);
+                } catch (Exception e) {
+                    throw new IllegalStateException("calculation failed for employee " + record.getEmployeeId(), e);
+                }
+                writer.write(result.toCsv());
+                totals.add(result.getEeResults(), result.getErResults());
+
+                if ((i + 1 - offset) % interval == 0 && i + 1 < records.size()) {
+                    writer.flush();
+                    channel.force(false);
+                    new BatchCheckpoint(rosterChecksum, i + 1, channel.position(), totals).write(journal);
+                }
+            }
+            writer.flush();
+            channel.force(false);
+        }
+        Files.deleteIfExists(journal);
+        return totals;
+    }
+
+    /**
+     * Calculate a roster file as a stream, the roster is read as fast as the employees are calculated and
+     * written, so only a bounded number of employees is in memory whatever the size of the roster.
+     * The buffer of the writer is set by the system property mpf.stream.bufferCapacity, 256 by default.
+     *
+     * @param roster the roster file
+     * @param output the output file, rows are in the order the employees are calculated
+     * @param parallelism the number of employees calculated at the same time
+     * @return the number of employees calculated
+     */
+    public int runStreaming(Path roster, Path output, int parallelism) throws Exception {
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            RosterCalculationProcessor processor = new RosterCalculationProcessor(
+                    calService,
+                    parallelism,
+                    Integer.getInteger("mpf.stream.bufferCapacity", Flow.defaultBufferSize())
+            );
+            CsvResultSubscriber subscriber = new CsvResultSubscriber(writer);
+            processor.subscribe(subscriber);
+            new RosterFilePublisher(roster).subscribe(processor);
+            return subscriber.getResult().get();
+        }
+    }
+
+    /**
+     * Calculate a roster file to a binary record file, see AmountRecordSink for the layout.
+     * The amounts are written through a fixed-size off-heap buffer and no result object is kept,
+     * the roster itself is read and sorted on the heap.
+     *
+     * @param roster the roster file
+     * @param output the record file, records are sorted by employee id
+     * @return the number of employees calculated
+     */
+    public int runRecords(Path roster, Path output) throws Exception {
+        List<RosterRecord> records = readRoster(roster);
+        records.sort(Comparator.comparing(RosterRecord::getEmployeeId));
+
+        try (AmountRecordSink sink = AmountRecordSink.create(output)) {
+            for (RosterRecord record : records) {
+                try {
+                    calService.calculateInto(record, sink);
+                } catch (Exception e) {
+                    throw new IllegalStateException("calculation failed for employee " + record.getEmployeeId(), e);
+                }
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * Project the contributions of every employee in a roster file until the 65th birthday or the end of employment,
+     * the salary of the roster is raised by the growth rate on every anniversary of the employment.
+     *
+     * @param roster the roster file
+     * @param output the output file, one row of totals per employee sorted by employee id
+     * @param growthRate the yearly salary growth, e.g. 0.03
+     * @return the number of employees projected
+     */
+    public int runProjection(Path roster, Path output, BigDecimal growthRate) throws Exception {
+        List<RosterRecord> records = readRoster(roster);
+        records.sort(Comparator.comparing(RosterRecord::getEmployeeId));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            for (RosterRecord record : records) {
+                try {
+                    MPFDateCalculatorConfig config = record.getConfig();
+                    LocalDate age65Date = config.getDateOfBirth().plusYears(65);
+                    LocalDate end = config.getEndOfEmployment();
+                    SalaryGrowthFunction growth = SalaryGrowthFunction.annual(
+                            DayBaseKernel.toCents(record.getSalary()),
+                            growthRate,
+                            config.getDateOfEmployment(),
+                            end != null && end.isBefore(age65Date) ? end : age65Date
+                    );
+                    writer.write(calService.project(record, growth, null).toCsv(record.getEmployeeId()));
+                } catch (Exception e) {
+                    throw new IllegalStateException("projection failed for employee " + record.getEmployeeId(), e);
+                }
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * read the roster file, blank lines and lines starting with # are skipped
+     */
+    public static List<RosterRecord> readRoster(Path roster) throws IOException {
+        try (Stream<String> lines = Files.lines(roster)) {
+            return lines.filter(RosterBatchRunner::isDataLine)
+                    .map(RosterRecord::parse)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * read a holiday file, one ISO date per line
+     */
+    public static List<LocalDate> readHolidays(Path holidayFile) throws IOException {
+        try (Stream<String> lines = Files.lines(holidayFile)) {
+            return lines.filter(RosterBatchRunner::isDataLine)
+                    .map(String::trim)
+                    .map(LocalDate::parse)
+                    .toList();
+        }
+    }
+
+    /**
+     * load a holiday file, either a calendar compiled by HolidayCalendarCompiler which is memory-mapped, or a text
+     * file of one ISO date per line. The compiler verifies the calendar it writes, so only the header is read here;
+     * set the system property mpf.holidays.verify to true to check the checksum of the whole calendar on every load
+     * @throws IllegalStateException if the compiled calendar is corrupted and mpf.holidays.verify is set
+     */
+    public static List<LocalDate> loadHolidays(Path holidayFile) throws IOException {
+        if (HolidayCalendar.isCompiled(holidayFile)) {
+            HolidayCalendar calendar = HolidayCalendar.open(holidayFile);
+            return Boolean.getBoolean("mpf.holidays.verify") ? calendar.verify() : calendar;
+        }
+        return readHolidays(holidayFile);
+    }
+
+    static boolean isDataLine(String line) {
+        return !line.isBlank() && !line.startsWith("#");
+    }
+
+    /**
+     * args: roster output [holidays]
+     * set the system property mpf.scheduleCache to a file to start with the schedules of the previous run
+     * set the system property mpf.projectionGrowth to a yearly salary growth rate to write career-long projections
+     * set the system property mpf.recordOutput to true to write binary records instead of csv
+     * set the system property mpf.stream.parallelism to calculate the roster as a stream on that many threads
+     * set the system property mpf.holidays.verify to true to check the checksum of a compiled holiday calendar
+     * set the system property mpf.checkpoint to a journal file to resume a failed run, a checkpoint is written
+     * every mpf.checkpoint.interval employees, 1000 by default, and the remittance totals are printed
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: RosterBatchRunner <roster> <output> [holidays]");
+            System.exit(2);
+        }
+        try {
+            List<LocalDate> holidays = args.length > 2 ? loadHolidays(Path.of(args[2])) : List.of();
+            CalService calService = new CalService(holidays);
+            String snapshot = System.getProperty("mpf.scheduleCache");
+            if (snapshot != null) {
+                System.out.println("Cached schedules loaded: " + calService.loadScheduleCache(Path.of(snapshot)));
+            }
+            String growth = System.getProperty("mpf.projectionGrowth");
+            RosterBatchRunner runner = new RosterBatchRunner(calService);
+            if (growth != null) {
+                int count = runner.runProjection(Path.of(args[0]), Path.of(args[1]), new BigDecimal(growth));
+                System.out.println("Projected employees: " + count);
+            } else if (System.getProperty("mpf.checkpoint") != null) {
+                runner.runCheckpointed(
+                        Path.of(args[0]),
+                        Path.of(args[1]),
+                        Path.of(System.getProperty("mpf.checkpoint")),
+                        Integer.getInteger("mpf.checkpoint.interval", 1000)
+                ).getTotals().forEach(System.out::println);
+            } else if (Integer.getInteger("mpf.stream.parallelism") != null) {
+                int count = runner.runStreaming(Path.of(args[0]), Path.of(args[1]), Integer.getInteger("mpf.stream.parallelism"));
+                System.out.println("Calculated employees: " + count);
+            } else if (Boolean.getBoolean("mpf.recordOutput")) {
+                int count = runner.runRecords(Path.of(args[0]), Path.of(args[1]));
+                System.out.println("Calculated employees: " + count);
+            } else {
+                int count = runner.run(Path.of(args[0]), Path.of(args[1]));
+                System.out.println("Calculated employees: " + count);
+            }
+            if (snapshot != null) {
+                calService.saveScheduleCache(Path.of(snapshot));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
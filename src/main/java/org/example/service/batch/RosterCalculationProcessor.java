@@ -0,0 +1,224 @@
+package org.example.service.batch;
+
+import org.example.dto.EmployeeResult;
+import org.example.dto.RosterRecord;
+import org.example.service.export.CalService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates the employees of an upstream publisher and publishes their amounts, with backpressure on
+ * both sides. At most 2 * parallelism employees are requested from upstream and not yet calculated, and at
+ * most bufferCapacity results wait for the downstream subscriber; a worker blocks until the subscriber has
+ * room, and the next employee is requested only when a result has been handed over. So the memory used
+ * is bounded whatever the upstream rate.
+ * The results are published in the order they are calculated, not the order of the employees.
+ * Subscribe the downstream subscriber before subscribing the processor to the upstream publisher.
+ * The first failed calculation cancels the upstream and fails the downstream. When the downstream subscriber
+ * cancels, e.g. CsvResultSubscriber after a write error, the upstream is cancelled and the employees not
+ * calculated yet are skipped, as are the employees upstream still sends after the processor failed or was cancelled.
+ * The delivery thread stops once every downstream subscriber has received onComplete or onError, or cancelled,
+ * so a subscriber may request the buffered results from another thread after the last employee is calculated.
+ */
+public class RosterCalculationProcessor implements Flow.Processor<RosterRecord, EmployeeResult> {
+
+    private final CalService calService;
+    private final int window;
+    private final ExecutorService workers;
+    private final ExecutorService delivery;
+    private final SubmissionPublisher<EmployeeResult> publisher;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean upstreamDone;
+    private volatile Flow.Subscription upstream;
+
+    /**
+     * @param calService the calculation service, shared by the workers
+     * @param parallelism the number of employees calculated at the same time
+     * @param bufferCapacity the most results buffered for the downstream subscriber
+     */
+    public RosterCalculationProcessor(CalService calService, int parallelism, int bufferCapacity) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be a positive number");
+        }
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("bufferCapacity must be a positive number");
+        }
+        this.calService = calService;
+        this.window = Math.multiplyExact(parallelism, 2);
+        this.workers = Executors.newFixedThreadPool(parallelism);
+        // separate from the workers, a worker waiting for room in the buffer must not hold up the delivery
+        this.delivery = Executors.newSingleThreadExecutor();
+        this.publisher = new SubmissionPublisher<>(delivery, bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super EmployeeResult> subscriber) {
+        subscribers.incrementAndGet();
+        publisher.subscribe(new DeliveredSubscriber(subscriber));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(RosterRecord record) {
+        if (closed.get()) {
+            return; // failed or cancelled, the upstream is cancelled already
+        }
+        inFlight.incrementAndGet();
+        try {
+            workers.execute(() -> calculate(record));
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet(); // closed in the meantime
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamDone = true;
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        if (inFlight.get() == 0) {
+            complete();
+        }
+    }
+
+    private void calculate(RosterRecord record) {
+        try {
+            if (!closed.get() && publisher.hasSubscribers()) {
+                // blocks while the buffer of the downstream subscriber is full
+                publisher.submit(calService.calculateAmount(record));
+            }
+            if (!publisher.hasSubscribers()) {
+                cancel(); // the downstream subscriber cancelled
+            }
+        } catch (Exception e) {
+            fail(new IllegalStateException("calculation failed for employee " + record.getEmployeeId(), e));
+        } finally {
+            if (inFlight.decrementAndGet() == 0 && upstreamDone) {
+                complete();
+            } else if (!closed.get()) {
+                upstream.request(1);
+            }
+        }
+    }
+
+    private void complete() {
+        if (closed.compareAndSet(false, true)) {
+            publisher.close();
+            shutdown();
+        }
+    }
+
+    private void cancel() {
+        if (closed.compareAndSet(false, true)) {
+            if (!upstreamDone) {
+                upstream.cancel();
+            }
+            publisher.close();
+            shutdown();
+        }
+    }
+
+    private void fail(Throwable error) {
+        if (closed.compareAndSet(false, true)) {
+            if (!upstreamDone) {
+                upstream.cancel();
+            }
+            publisher.closeExceptionally(error);
+            shutdown();
+        }
+    }
+
+    private void shutdown() {
+        // the tasks already queued still run
+        workers.shutdown();
+        shutdownDelivery();
+    }
+
+    private void shutdownDelivery() {
+        // the buffered results, onComplete and onError still need the delivery executor
+        if (closed.get() && subscribers.get() == 0) {
+            delivery.shutdown();
+        }
+    }
+
+    /**
+     * Counts a downstream subscriber down once it has received onComplete or onError, or has cancelled.
+     */
+    private final class DeliveredSubscriber implements Flow.Subscriber<EmployeeResult>, Flow.Subscription {
+        private final Flow.Subscriber<? super EmployeeResult> subscriber;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+
+        private DeliveredSubscriber(Flow.Subscriber<? super EmployeeResult> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(EmployeeResult item) {
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            try {
+                subscriber.onError(throwable);
+            } finally {
+                done();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                subscriber.onComplete();
+            } finally {
+                done();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            subscription.cancel();
+            done();
+        }
+
+        private void done() {
+            if (done.compareAndSet(false, true)) {
+                subscribers.decrementAndGet();
+                shutdownDelivery();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.service.batch;
+
+import org.example.dto.RosterRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the employees of a roster file on demand, a line is read only when the subscriber has requested
+ * a record, so a slow subscriber holds back the reading of the file. Every subscriber reads the file from
+ * the start.
+ */
+public class RosterFilePublisher implements Flow.Publisher<RosterRecord> {
+
+    private final Path roster;
+
+    /**
+     * @param roster the roster file, see RosterRecord for the layout
+     */
+    public RosterFilePublisher(Path roster) {
+        this.roster = roster;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super RosterRecord> subscriber) {
+        BufferedReader reader;
+        try {
+            reader = Files.newBufferedReader(roster);
+        } catch (IOException e) {
+            subscriber.onSubscribe(new LineSubscription(subscriber, null));
+            subscriber.onError(e);
+            return;
+        }
+        subscriber.onSubscribe(new LineSubscription(subscriber, reader));
+    }
+
+    private static final class LineSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super RosterRecord> subscriber;
+        private final BufferedReader reader;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+
+        private LineSubscription(Flow.Subscriber<? super RosterRecord> subscriber, BufferedReader reader) {
+            this.subscriber = subscriber;
+            this.reader = reader;
+            this.done = reader == null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                finish(new IllegalArgumentException("request must be positive, was " + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            drain(); // closes the reader unless another thread is emitting, which closes it then
+        }
+
+        /**
+         * Emit records while there is demand. Only one thread emits at a time, requests of other threads
+         * (or of the subscriber within onNext) are picked up by the loop of the emitting thread.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                while (!done && demand.get() > 0) {
+                    RosterRecord record;
+                    try {
+                        record = readRecord();
+                    } catch (Exception e) {
+                        finish(e);
+                        break;
+                    }
+                    if (record == null) {
+                        finish(null);
+                        break;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(record);
+                }
+                if (done) {
+                    close();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private RosterRecord readRecord() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (RosterBatchRunner.isDataLine(line)) {
+                    return RosterRecord.parse(line);
+                }
+            }
+            return null;
+        }
+
+        private void finish(Exception error) {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        private void close() {
+            if (reader == null) {
+                return;
+            }
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // nothing more is read
+            }
+        }
+    }
+}
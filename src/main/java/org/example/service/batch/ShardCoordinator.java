@@ -0,0 +1,313 @@
+package org.example.service.batch;
+
+import org.example.dto.RosterRecord;
+import org.example.util.logic.RemittanceAggregator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Shard-and-merge batch mode for rosters that do not fit in one JVM heap.
+ * The roster is partitioned into N shards by employee id hash, each shard is calculated by
+ * RosterBatchRunner in a separate local JVM process, failed shards are retried, and the sorted
+ * shard outputs are k-way merged into one output file while the remittance totals are aggregated.
+ * A shard process still running after the shard timeout is killed and retried like a failed one.
+ * Each attempt of a shard logs to its own file, shard-N-attempt.log, so the log of a failed attempt is kept.
+ */
+public class ShardCoordinator {
+
+    private static final Logger logger = Logger.getLogger(ShardCoordinator.class.getName());
+
+    private final int shards;
+    private final int maxRetries;
+    private final Path workDir;
+    private final Path holidayFile;
+    private final List<String> jvmArgs = new ArrayList<>();
+    private long shardTimeoutNanos = TimeUnit.SECONDS.toNanos(Long.getLong("mpf.shard.timeoutSeconds", 3600));
+
+    /**
+     * constructor
+     * @param shards number of shard processes
+     * @param maxRetries how many times a failed shard is started again
+     * @param workDir directory for the shard input and output files
+     * @param holidayFile holiday file passed to the shard processes, can be null
+     */
+    public ShardCoordinator(int shards, int maxRetries, Path workDir, Path holidayFile) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be a positive number");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative");
+        }
+        this.shards = shards;
+        this.maxRetries = maxRetries;
+        this.workDir = workDir;
+        this.holidayFile = holidayFile;
+    }
+
+    /**
+     * Add JVM options of the shard processes, e.g. -Xmx2g.
+     */
+    public ShardCoordinator addJvmArg(String jvmArg) {
+        jvmArgs.add(jvmArg);
+        return this;
+    }
+
+    /**
+     * Set how long the shard processes of one attempt may run, the system property mpf.shard.timeoutSeconds,
+     * 3600 by default. A shard still running after it is killed and counts as failed.
+     */
+    public ShardCoordinator setShardTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be a positive number");
+        }
+        this.shardTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * Run the roster in shard processes and merge the outputs.
+     *
+     * @param roster the roster file
+     * @param output the merged output file, rows are sorted by employee id
+     * @return the remittance totals of the whole roster
+     * @throws IllegalArgumentException if a line of the roster is invalid
+     */
+    public RemittanceAggregator run(Path roster, Path output) throws IOException, InterruptedException {
+        List<Path> inputs = partition(roster);
+        List<Path> outputs = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            outputs.add(workDir.resolve("shard-" + i + ".out"));
+        }
+
+        runShards(inputs, outputs);
+        RemittanceAggregator totals = merge(outputs, output);
+        deleteWorkFiles(inputs, outputs); // kept when a shard fails, for the logs
+        return totals;
+    }
+
+    private void deleteWorkFiles(List<Path> inputs, List<Path> outputs) throws IOException {
+        for (int i = 0; i < shards; i++) {
+            Files.deleteIfExists(inputs.get(i));
+            Files.deleteIfExists(outputs.get(i));
+            for (int attempt = 0; attempt <= maxRetries; attempt++) {
+                Files.deleteIfExists(logOf(i, attempt));
+            }
+        }
+    }
+
+    private Path logOf(int shard, int attempt) {
+        return workDir.resolve("shard-" + shard + "-" + attempt + ".log");
+    }
+
+    /**
+     * Partition the roster into shard files by employee id hash.
+     * Every line is parsed by RosterRecord.parse(), so an invalid roster fails before any shard is started.
+     * @return the shard files, the lines of shard i are in the file at index i
+     */
+    public List<Path> partition(Path roster) throws IOException {
+        Files.createDirectories(workDir);
+        List<Path> inputs = new ArrayList<>(shards);
+        List<BufferedWriter> writers = new ArrayList<>(shards);
+        try {
+            for (int i = 0; i < shards; i++) {
+                Path input = workDir.resolve("shard-" + i + ".csv");
+                inputs.add(input);
+                writers.add(Files.newBufferedWriter(input));
+            }
+            try (BufferedReader reader = Files.newBufferedReader(roster)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!RosterBatchRunner.isDataLine(line)) {
+                        continue;
+                    }
+                    String employeeId = RosterRecord.parse(line).getEmployeeId();
+                    BufferedWriter writer = writers.get(shardOf(employeeId));
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        } finally {
+            for (BufferedWriter writer : writers) {
+                writer.close();
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Get the shard of an employee.
+     */
+    public int shardOf(String employeeId) {
+        return Math.floorMod(employeeId.hashCode(), shards);
+    }
+
+    /**
+     * Start all shard processes and retry the failed ones.
+     */
+    private void runShards(List<Path> inputs, List<Path> outputs) throws IOException, InterruptedException {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            pending.add(i);
+        }
+
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt > maxRetries) {
+                throw new IOException("shards " + pending + " failed after " + maxRetries + " retries");
+            }
+
+            List<Process> processes = new ArrayList<>(pending.size());
+            for (int shard : pending) {
+                processes.add(startShard(inputs.get(shard), outputs.get(shard), logOf(shard, attempt)));
+            }
+
+            // the shards run at the same time, so they share one deadline
+            long deadline = System.nanoTime() + shardTimeoutNanos;
+            List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                Process process = processes.get(i);
+                if (!process.waitFor(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    process.destroyForcibly().waitFor();
+                    logger.warning("shard " + pending.get(i) + " timed out, attempt " + (attempt + 1));
+                    failed.add(pending.get(i));
+                    continue;
+                }
+                int exitCode = process.exitValue();
+                if (exitCode != 0) {
+                    logger.warning("shard " + pending.get(i) + " failed with exit code " + exitCode + ", attempt " + (attempt + 1));
+                    failed.add(pending.get(i));
+                }
+            }
+            pending = failed;
+        }
+    }
+
+    /**
+     * Start the process of a shard, RosterBatchRunner in a new JVM.
+     * @param input the roster of the shard
+     * @param output the output of the shard
+     * @param log the file the process output goes to
+     */
+    protected Process startShard(Path input, Path output, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(RosterBatchRunner.class.getName());
+        command.add(input.toString());
+        command.add(output.toString());
+        if (holidayFile != null) {
+            command.add(holidayFile.toString());
+        }
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    /**
+     * K-way merge of the sorted shard outputs, the totals are aggregated on the fly.
+     */
+    private RemittanceAggregator merge(List<Path> outputs, Path output) throws IOException {
+        RemittanceAggregator aggregator = new RemittanceAggregator();
+        List<BufferedReader> readers = new ArrayList<>(outputs.size());
+        PriorityQueue<ShardLine> queue = new PriorityQueue<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            for (int i = 0; i < outputs.size(); i++) {
+                BufferedReader reader = Files.newBufferedReader(outputs.get(i));
+                readers.add(reader);
+                offer(queue, reader, i);
+            }
+
+            while (!queue.isEmpty()) {
+                ShardLine next = queue.poll();
+                writer.write(next.line);
+                writer.newLine();
+                aggregate(aggregator, next);
+                offer(queue, readers.get(next.shard), next.shard);
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+        return aggregator;
+    }
+
+    private static void offer(PriorityQueue<ShardLine> queue, BufferedReader reader, int shard) throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            queue.add(new ShardLine(line, shard));
+        }
+    }
+
+    /**
+     * fold an output row (employeeId,periodStart,periodEnd,salary,eeAmount,erAmount) into the totals
+     */
+    private static void aggregate(RemittanceAggregator aggregator, ShardLine line) {
+        String[] c = line.columns;
+        aggregator.add(LocalDate.parse(c[1]), new BigDecimal(c[4]), new BigDecimal(c[5]), new BigDecimal(c[3]));
+    }
+
+    /**
+     * A row of a shard output, ordered by employee id. An employee only lives in one shard,
+     * so ties are broken by shard index which keeps the rows of one employee together and in order.
+     */
+    private static class ShardLine implements Comparable<ShardLine> {
+        private final String line;
+        private final String[] columns;
+        private final String employeeId;
+        private final int shard;
+
+        ShardLine(String line, int shard) {
+            this.line = line;
+            this.columns = line.split(",", -1);
+            if (columns.length != 6) {
+                throw new IllegalArgumentException("Invalid output line of shard " + shard + ": " + line);
+            }
+            this.employeeId = columns[0];
+            this.shard = shard;
+        }
+
+        @Override
+        public int compareTo(ShardLine o) {
+            int c = employeeId.compareTo(o.employeeId);
+            return c != 0 ? c : Integer.compare(shard, o.shard);
+        }
+    }
+
+    /**
+     * args: roster output workDir shards [holidays]
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: ShardCoordinator <roster> <output> <workDir> <shards> [holidays]");
+            System.exit(2);
+        }
+        try {
+            ShardCoordinator coordinator = new ShardCoordinator(
+                    Integer.parseInt(args[3]),
+                    2,
+                    Path.of(args[2]),
+                    args.length > 4 ? Path.of(args[4]) : null
+            );
+            coordinator.run(Path.of(args[0]), Path.of(args[1]))
+                    .getTotals()
+                    .forEach(System.out::println);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
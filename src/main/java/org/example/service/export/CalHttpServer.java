@@ -0,0 +1,231 @@
+package org.example.service.export;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.dto.ContributionPeriod;
+import org.example.dto.ContributionPeriodMore;
+import org.example.dto.EmployeeResult;
+import org.example.dto.RosterRecord;
+import org.example.service.batch.RosterBatchRunner;
+import org.example.util.logic.LatencyRecorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded HTTP server in front of CalService for the payroll UI and other services on the same host.
+ * The request body is one roster line per employee (see RosterRecord), the response is plain text CSV.
+ * <ul>
+ *     <li>POST /calculateDate - schedule of one employee, rows: PERIOD|MORE,periodStart,periodEnd</li>
+ *     <li>POST /calculateAmount - amounts of one employee, rows: employeeId,periodStart,periodEnd,salary,eeAmount,erAmount</li>
+ *     <li>POST /bulk - amounts of every employee in the body, same rows as /calculateAmount</li>
+ *     <li>GET /metrics - call count and p50/p99 latency of each endpoint</li>
+ * </ul>
+ * Requests are handled on virtual threads on Java 21 and later, which are looked up by reflection because the
+ * build does not pin a Java version. On Java 17 they run on a cached thread pool, one platform thread each.
+ * Request bodies larger than the limit, 1 MiB or the system property mpf.http.maxBodyBytes, are rejected with 413.
+ */
+public class CalHttpServer {
+
+    private static final Logger logger = Logger.getLogger(CalHttpServer.class.getName());
+
+    private final CalService calService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+    private int maxBodyBytes = Integer.getInteger("mpf.http.maxBodyBytes", 1 << 20);
+
+    /**
+     * constructor, the server only listens on the loopback address
+     * @param calService the calculation service
+     * @param port the port, 0 for any free port
+     */
+    public CalHttpServer(CalService calService, int port) throws IOException {
+        this.calService = calService;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = newRequestExecutor();
+        this.server.setExecutor(executor);
+
+        register("/calculateDate", this::calculateDate);
+        register("/calculateAmount", this::calculateAmount);
+        register("/bulk", this::bulk);
+        server.createContext("/metrics", this::metrics);
+    }
+
+    public CalHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Set the largest request body accepted.
+     * @param maxBodyBytes the limit in bytes
+     * @return this instance for method chaining
+     */
+    public CalHttpServer setMaxBodyBytes(int maxBodyBytes) {
+        if (maxBodyBytes <= 0) {
+            throw new IllegalArgumentException("maxBodyBytes must be a positive number");
+        }
+        this.maxBodyBytes = maxBodyBytes;
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get the latency recorder of an endpoint, e.g. "/calculateAmount".
+     */
+    public LatencyRecorder getLatency(String path) {
+        return latencies.get(path);
+    }
+
+    private String calculateDate(String body) throws Exception {
+        ContributionPeriodMore schedule = calService.calculateDate(RosterRecord.parse(body.trim()));
+        StringBuilder response = new StringBuilder();
+        for (ContributionPeriod p : schedule.getPeriod()) {
+            response.append("PERIOD,").append(p.getStartDate()).append(',').append(p.getEndDate()).append('\n');
+        }
+        for (ContributionPeriod p : schedule.getPeriodMore()) {
+            response.append("MORE,").append(p.getStartDate()).append(',').append(p.getEndDate()).append('\n');
+        }
+        return response.toString();
+    }
+
+    private String calculateAmount(String body) throws Exception {
+        return calService.calculateAmount(RosterRecord.parse(body.trim())).toCsv();
+    }
+
+    private String bulk(String body) throws Exception {
+        List<RosterRecord> records = body.lines()
+                .filter(line -> !line.isBlank())
+                .map(RosterRecord::parse)
+                .toList();
+        return calService.calculateBulk(records).stream()
+                .map(EmployeeResult::toCsv)
+                .collect(Collectors.joining());
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "GET only\n");
+            return;
+        }
+        StringBuilder response = new StringBuilder("endpoint,count,p50Micros,p99Micros\n");
+        latencies.forEach((path, recorder) -> response.append(path).append(',')
+                .append(recorder.getCount()).append(',')
+                .append(recorder.getPercentile(50) / 1000).append(',')
+                .append(recorder.getPercentile(99) / 1000).append('\n'));
+        send(exchange, 200, response.toString());
+    }
+
+    private void register(String path, Endpoint endpoint) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        latencies.put(path, recorder);
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    send(exchange, 405, "POST only\n");
+                    return;
+                }
+                int limit = maxBodyBytes;
+                byte[] body = exchange.getRequestBody().readNBytes(limit + 1);
+                if (body.length > limit) {
+                    send(exchange, 413, "request body is larger than " + limit + " bytes\n");
+                    return;
+                }
+                send(exchange, 200, endpoint.handle(new String(body, StandardCharsets.UTF_8)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                send(exchange, 400, messageOf(e) + "\n");
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "calculation failed on " + path, e);
+                send(exchange, 500, messageOf(e) + "\n");
+            } finally {
+                recorder.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * the message of an exception, its class name if it has none
+     */
+    private static String messageOf(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Virtual thread per request executor on Java 21+, cached thread pool on older runtimes.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        String handle(String body) throws Exception;
+    }
+
+    /**
+     * args: port [holidays]
+     * set the system property mpf.scheduleCache to a file to start warm and snapshot the schedules on shutdown
+     */
+    public static void main(String[] args) {
+        try {
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+            List<LocalDate> holidays = args.length > 1
+                    ? RosterBatchRunner.loadHolidays(Path.of(args[1]))
+                    : List.of();
+            CalService calService = new CalService(holidays);
+            String snapshot = System.getProperty("mpf.scheduleCache");
+            if (snapshot != null) {
+                System.out.println("Cached schedules loaded: " + calService.loadScheduleCache(Path.of(snapshot)));
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        calService.saveScheduleCache(Path.of(snapshot));
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, "failed to save schedule snapshot", e);
+                    }
+                }));
+            }
+            CalHttpServer server = new CalHttpServer(calService, port).start();
+            System.out.println("Listening on port " + server.getPort());
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
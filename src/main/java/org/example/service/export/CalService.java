@@ -1,7 +1,51 @@
 package org.example.service.export;
 
+import org.example.dto.ContributionPeriod;
+import org.example.dto.ContributionPeriodMore;
+import org.example.dto.EmployeeResult;
+import org.example.dto.ProjectionTotal;
+import org.example.dto.RosterRecord;
+import org.example.enums.CalUserType;
+import org.example.util.intf.ProjectionListener;
+import org.example.util.intf.SalaryGrowthFunction;
+import org.example.util.logic.AmountRecordSink;
+import org.example.util.logic.AmountResultCache;
+import org.example.util.logic.CalculationKey;
+import org.example.util.logic.DayBaseKernel;
+import org.example.util.logic.MPFAmtCalculator;
+import org.example.util.logic.ScheduleCache;
+import org.example.util.logic.SingleFlight;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class CalService {
 
+    private final List<LocalDate> holidays;
+    private final ScheduleCache scheduleCache;
+    private AmountResultCache resultCache = AmountResultCache.fromSystemProperties();
+
+    // concurrent identical schedule calculations are coalesced into one
+    private final SingleFlight<CalculationKey, ContributionPeriodMore> scheduleFlights = new SingleFlight<>();
+
+    public CalService() {
+        this(List.of());
+    }
+
+    /**
+     * constructor
+     * @param holidays the holidays need to be skipped.
+     */
+    public CalService(List<LocalDate> holidays) {
+        this.holidays = holidays;
+        this.scheduleCache = new ScheduleCache(holidays);
+    }
+
     public void MPFContributionCalculate() {
         try{
 
@@ -9,4 +53,145 @@ public class CalService {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Calculate the contribution periods of one employee.
+     * Schedules are cached, and identical calculations running at the same time are coalesced and share the result,
+     * the returned schedule and its periods are unmodifiable, see ContributionPeriodMore.unmodifiableCopy().
+     * @param record the employee
+     * @return the schedule
+     */
+    public ContributionPeriodMore calculateDate(RosterRecord record) throws Exception {
+        CalculationKey key = new CalculationKey(record.getFrequency(), scheduleCache.getCalendarVersion(), record.getConfig());
+        ContributionPeriodMore cached = scheduleCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return scheduleFlights.execute(
+                key,
+                () -> {
+                    ContributionPeriodMore schedule;
+                    try (MPFAmtCalculator calculator = new MPFAmtCalculator(record.getFrequency(), holidays, record.getConfig())) {
+                        schedule = calculator.calculateDate();
+                    }
+                    schedule = ContributionPeriodMore.unmodifiableCopy(schedule);
+                    scheduleCache.put(key, schedule);
+                    return schedule;
+                }
+        );
+    }
+
+    /**
+     * Put a result cache in front of the amount calculation, see AmountResultCache.fromSystemProperties()
+     * for the default.
+     * @param resultCache the cache, null to calculate every time
+     * @return this instance for method chaining
+     */
+    public CalService setResultCache(AmountResultCache resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    public AmountResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public ScheduleCache getScheduleCache() {
+        return scheduleCache;
+    }
+
+    /**
+     * Warm the schedule cache from a snapshot written by saveScheduleCache().
+     * @param file the snapshot file
+     * @return the number of schedules loaded
+     */
+    public int loadScheduleCache(Path file) throws IOException {
+        return scheduleCache.load(file);
+    }
+
+    /**
+     * Snapshot the schedule cache to a local file.
+     * @param file the snapshot file
+     */
+    public void saveScheduleCache(Path file) throws IOException {
+        scheduleCache.save(file);
+    }
+
+    /**
+     * Calculate the schedule and both EE and ER amounts of one employee.
+     * The salary of the record is used for every contribution period.
+     * @param record the employee
+     * @return the amounts of the employee
+     */
+    public EmployeeResult calculateAmount(RosterRecord record) throws Exception {
+        ContributionPeriodMore schedule = calculateDate(record);
+        try (MPFAmtCalculator calculator = new MPFAmtCalculator(record.getFrequency(), holidays, record.getConfig())) {
+            calculator.useSchedule(schedule).setResultCache(resultCache);
+
+            BigDecimal[] salaries = new BigDecimal[schedule.size()];
+            Arrays.fill(salaries, record.getSalary());
+
+            return calculator.calculateAmounts(record.getEmployeeId(), salaries);
+        }
+    }
+
+    /**
+     * Calculate the schedule and both EE and ER amounts of one employee on fixed-point values and append
+     * them to a record sink, no result object is created.
+     * The salary of the record is used for every contribution period.
+     * @param record the employee
+     * @param sink receives one record per contribution period
+     * @return the number of periods appended
+     */
+    public int calculateInto(RosterRecord record, AmountRecordSink sink) throws Exception {
+        ContributionPeriodMore schedule = calculateDate(record);
+        try (MPFAmtCalculator calculator = new MPFAmtCalculator(record.getFrequency(), holidays, record.getConfig())) {
+            calculator.useSchedule(schedule);
+
+            long[] salaryCents = new long[schedule.size()];
+            Arrays.fill(salaryCents, DayBaseKernel.toCents(record.getSalary()));
+
+            long[] eeAmounts = calculator.calculateAmountFixed(CalUserType.EMPLOYEE, salaryCents);
+            long[] erAmounts = calculator.calculateAmountFixed(CalUserType.EMPLOYER, salaryCents);
+            for (int i = 0; i < salaryCents.length; i++) {
+                ContributionPeriod p = schedule.get(i);
+                sink.append(
+                        record.getEmployeeId(),
+                        p.getStartDate().toEpochDay(),
+                        p.getEndDate().toEpochDay(),
+                        salaryCents[i],
+                        eeAmounts[i],
+                        erAmounts[i]
+                );
+            }
+            return salaryCents.length;
+        }
+    }
+
+    /**
+     * Project the contributions of one employee until the 65th birthday or the end of employment.
+     * @param record the employee
+     * @param growth the salary of each period
+     * @param listener receives every period with the running totals, may be null
+     * @return the totals of the employee
+     */
+    public ProjectionTotal project(RosterRecord record, SalaryGrowthFunction growth, ProjectionListener listener) throws Exception {
+        ContributionPeriodMore schedule = calculateDate(record);
+        try (MPFAmtCalculator calculator = new MPFAmtCalculator(record.getFrequency(), holidays, record.getConfig())) {
+            return calculator.useSchedule(schedule).project(growth, listener);
+        }
+    }
+
+    /**
+     * Calculate the amounts of several employees.
+     * @param records the employees
+     * @return the amounts in the same order of the records
+     */
+    public List<EmployeeResult> calculateBulk(List<RosterRecord> records) throws Exception {
+        List<EmployeeResult> results = new ArrayList<>(records.size());
+        for (RosterRecord record : records) {
+            results.add(calculateAmount(record));
+        }
+        return results;
+    }
 }
@@ -0,0 +1,16 @@
+package org.example.util.intf;
+
+/**
+ * Primitive specialised contribution amount function, no boxing on the per period call.
+ */
+@FunctionalInterface
+public interface ContributionFunction {
+    /**
+     * @param startEpochDay epoch day of the period start
+     * @param endEpochDay epoch day of the period end
+     * @param salaryCents the salary of the period in cents
+     * @param afterExemption is after exemption date of employee or not
+     * @return the amount, fixed-point with DayBaseKernel.AMOUNT_SCALE decimal places
+     */
+    long apply(long startEpochDay, long endEpochDay, long salaryCents, boolean afterExemption);
+}
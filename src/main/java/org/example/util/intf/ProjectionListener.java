@@ -0,0 +1,17 @@
+package org.example.util.intf;
+
+/**
+ * Receives each period of a career-long projection with the running totals, see MPFAmtCalculator.project().
+ * The amounts are fixed-point with DayBaseKernel.AMOUNT_SCALE decimal places.
+ */
+@FunctionalInterface
+public interface ProjectionListener {
+    /**
+     * @param startEpochDay epoch day of the period start
+     * @param endEpochDay epoch day of the period end
+     * @param salaryCents the salary of the period in cents
+     * @param eeTotal the employee contributions up to and including this period
+     * @param erTotal the employer contributions up to and including this period
+     */
+    void onPeriod(long startEpochDay, long endEpochDay, long salaryCents, long eeTotal, long erTotal);
+}
@@ -0,0 +1,60 @@
+package org.example.util.intf;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Salary of a projected contribution period, see MPFAmtCalculator.project().
+ */
+@FunctionalInterface
+public interface SalaryGrowthFunction {
+    /**
+     * @param periodIndex index of the period, 0 is the first contribution period
+     * @param startEpochDay epoch day of the period start
+     * @return the salary of the period in cents
+     */
+    long salaryCents(int periodIndex, long startEpochDay);
+
+    /**
+     * The same salary in every period.
+     * @param salaryCents the salary in cents
+     */
+    static SalaryGrowthFunction constant(long salaryCents) {
+        return (periodIndex, startEpochDay) -> salaryCents;
+    }
+
+    /**
+     * A salary raised by the same rate on every anniversary of a date, rounded to cents on each raise.
+     * The raises up to the last projected date are calculated once, the salary stays the same afterwards.
+     * @param salaryCents the salary before the first raise in cents
+     * @param rate the yearly rate, e.g. 0.03 for 3%
+     * @param from the raises are given on the anniversaries of this date
+     * @param until the last projected date, see MPFPayrollDateCalculatorLogic.getProjectionEnd()
+     */
+    static SalaryGrowthFunction annual(long salaryCents, BigDecimal rate, LocalDate from, LocalDate until) {
+        int years = (int) Math.max(ChronoUnit.YEARS.between(from, until), 0);
+        long[] anniversaries = new long[years + 1];
+        long[] salaries = new long[years + 1];
+        BigDecimal factor = BigDecimal.ONE.add(rate);
+        BigDecimal salary = BigDecimal.valueOf(salaryCents);
+        for (int y = 0; y <= years; y++) {
+            anniversaries[y] = from.plusYears(y).toEpochDay();
+            try {
+                salaries[y] = salary.longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("salary out of range after " + y + " raises of " + rate, e);
+            }
+            if (y < years) {
+                salary = salary.multiply(factor).setScale(0, RoundingMode.HALF_UP);
+            }
+        }
+        return (periodIndex, startEpochDay) -> {
+            int i = Arrays.binarySearch(anniversaries, startEpochDay);
+            int year = i >= 0 ? i : -i - 2; // the last anniversary on or before the period start
+            return salaries[Math.max(year, 0)];
+        };
+    }
+}
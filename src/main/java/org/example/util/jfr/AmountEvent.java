@@ -0,0 +1,28 @@
+package org.example.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of one amount calculation, MPFAmtCalculator.calculateAmount(), calculateAmounts() or
+ * calculateAmountFixed(), so CalService.calculateInto() commits one per user type
+ */
+@Name("org.example.mpf.Amount")
+@Label("MPF Amount Calculation")
+@Category({"MPF", "Calculation"})
+@Description("Calculation of the contribution amounts of one employee")
+@Enabled(false)
+public class AmountEvent extends Event {
+    @Label("Frequency")
+    public String frequency;
+
+    @Label("User Type")
+    public String userType;
+
+    @Label("Period Count")
+    public int periodCount;
+}
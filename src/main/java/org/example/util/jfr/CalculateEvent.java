@@ -0,0 +1,24 @@
+package org.example.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of one schedule calculation, MPFPayrollDateCalculatorLogic.calculate()
+ */
+@Name("org.example.mpf.Calculate")
+@Label("MPF Schedule Calculation")
+@Category({"MPF", "Calculation"})
+@Description("Calculation of the contribution periods of one employee")
+@Enabled(false)
+public class CalculateEvent extends Event {
+    @Label("Frequency")
+    public String frequency;
+
+    @Label("Period Count")
+    public int periodCount;
+}
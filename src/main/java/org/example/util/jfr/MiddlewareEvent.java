@@ -0,0 +1,27 @@
+package org.example.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of one middleware stage of the schedule pipeline
+ */
+@Name("org.example.mpf.Middleware")
+@Label("MPF Middleware Stage")
+@Category({"MPF", "Calculation"})
+@Description("One middleware stage applied to a calculated schedule")
+@Enabled(false)
+public class MiddlewareEvent extends Event {
+    @Label("Frequency")
+    public String frequency;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Period Count")
+    public int periodCount;
+}
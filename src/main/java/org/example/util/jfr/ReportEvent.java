@@ -0,0 +1,27 @@
+package org.example.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of one report generation of MPFAmtCalculator
+ */
+@Name("org.example.mpf.Report")
+@Label("MPF Report Generation")
+@Category({"MPF", "Report"})
+@Description("Generation of a date or amount report")
+@Enabled(false)
+public class ReportEvent extends Event {
+    @Label("Report")
+    public String report;
+
+    @Label("Frequency")
+    public String frequency;
+
+    @Label("Period Count")
+    public int periodCount;
+}
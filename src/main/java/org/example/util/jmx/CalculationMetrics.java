@@ -0,0 +1,211 @@
+package org.example.util.jmx;
+
+import org.example.enums.PayrollFrequency;
+import org.example.util.logic.LatencyRecorder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process wide counters of the calculation engine exposed through JMX, so a local JConsole or jcmd
+ * session can watch a batch or the service live. The instance registers itself in the platform
+ * MBeanServer when it is first used.
+ */
+public class CalculationMetrics implements CalculationMetricsMXBean {
+
+    private static final Logger logger = Logger.getLogger(CalculationMetrics.class.getName());
+
+    public static final String OBJECT_NAME = "org.example.mpf:type=CalculationMetrics";
+
+    private static final CalculationMetrics INSTANCE = register(new CalculationMetrics());
+
+    private final LongAdder[] calculations = new LongAdder[PayrollFrequency.values().length];
+    private final LongAdder periodsGenerated = new LongAdder();
+    private final LongAdder amountsComputed = new LongAdder();
+    private final LongAdder scheduleCacheHits = new LongAdder();
+    private final LongAdder scheduleCacheMisses = new LongAdder();
+    private final LongAdder resultCacheHits = new LongAdder();
+    private final LongAdder resultCacheMisses = new LongAdder();
+    private final LongAdder resultCacheEvictions = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private volatile LatencyRecorder calculationLatency = new LatencyRecorder();
+    private volatile LatencyRecorder amountLatency = new LatencyRecorder();
+
+    private CalculationMetrics() {
+        for (int i = 0; i < calculations.length; i++) {
+            calculations[i] = new LongAdder();
+        }
+    }
+
+    public static CalculationMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private static CalculationMetrics register(CalculationMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "failed to register " + OBJECT_NAME, e);
+        }
+        return metrics;
+    }
+
+    // ==================== recording =================================
+
+    public void recordCalculation(PayrollFrequency frequency, int periods, long nanos) {
+        calculations[frequency.ordinal()].increment();
+        periodsGenerated.add(periods);
+        calculationLatency.record(nanos);
+    }
+
+    public void recordAmounts(int amounts, long nanos) {
+        amountsComputed.add(amounts);
+        amountLatency.record(nanos);
+    }
+
+    public void recordScheduleCacheHit() {
+        scheduleCacheHits.increment();
+    }
+
+    public void recordScheduleCacheMiss() {
+        scheduleCacheMisses.increment();
+    }
+
+    public void recordResultCacheHit() {
+        resultCacheHits.increment();
+    }
+
+    public void recordResultCacheMiss() {
+        resultCacheMisses.increment();
+    }
+
+    public void recordResultCacheEviction() {
+        resultCacheEvictions.increment();
+    }
+
+    public void recordValidationFailure() {
+        validationFailures.increment();
+    }
+
+    // ==================== MXBean ====================================
+
+    @Override
+    public Map<String, Long> getCalculationsByFrequency() {
+        Map<String, Long> byFrequency = new LinkedHashMap<>();
+        for (PayrollFrequency frequency : PayrollFrequency.values()) {
+            byFrequency.put(frequency.name(), calculations[frequency.ordinal()].sum());
+        }
+        return byFrequency;
+    }
+
+    @Override
+    public long getCalculations() {
+        long total = 0;
+        for (LongAdder c : calculations) {
+            total += c.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getPeriodsGenerated() {
+        return periodsGenerated.sum();
+    }
+
+    @Override
+    public long getAmountsComputed() {
+        return amountsComputed.sum();
+    }
+
+    @Override
+    public long getScheduleCacheHits() {
+        return scheduleCacheHits.sum();
+    }
+
+    @Override
+    public long getScheduleCacheMisses() {
+        return scheduleCacheMisses.sum();
+    }
+
+    @Override
+    public double getScheduleCacheHitRatio() {
+        long hits = scheduleCacheHits.sum();
+        long total = hits + scheduleCacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getResultCacheHits() {
+        return resultCacheHits.sum();
+    }
+
+    @Override
+    public long getResultCacheMisses() {
+        return resultCacheMisses.sum();
+    }
+
+    @Override
+    public long getResultCacheEvictions() {
+        return resultCacheEvictions.sum();
+    }
+
+    @Override
+    public double getResultCacheHitRatio() {
+        long hits = resultCacheHits.sum();
+        long total = hits + resultCacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    @Override
+    public long getCalculationLatencyP50Micros() {
+        return calculationLatency.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getCalculationLatencyP99Micros() {
+        return calculationLatency.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getAmountLatencyP50Micros() {
+        return amountLatency.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getAmountLatencyP99Micros() {
+        return amountLatency.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder c : calculations) {
+            c.reset();
+        }
+        periodsGenerated.reset();
+        amountsComputed.reset();
+        scheduleCacheHits.reset();
+        scheduleCacheMisses.reset();
+        resultCacheHits.reset();
+        resultCacheMisses.reset();
+        resultCacheEvictions.reset();
+        validationFailures.reset();
+        calculationLatency = new LatencyRecorder();
+        amountLatency = new LatencyRecorder();
+    }
+}
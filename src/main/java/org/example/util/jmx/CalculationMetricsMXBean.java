@@ -0,0 +1,50 @@
+package org.example.util.jmx;
+
+import java.util.Map;
+
+/**
+ * Runtime counters of the calculation engine, registered in the platform MBeanServer
+ * as org.example.mpf:type=CalculationMetrics
+ */
+public interface CalculationMetricsMXBean {
+
+    /**
+     * schedule calculations per payroll frequency
+     */
+    Map<String, Long> getCalculationsByFrequency();
+
+    long getCalculations();
+
+    long getPeriodsGenerated();
+
+    long getAmountsComputed();
+
+    long getScheduleCacheHits();
+
+    long getScheduleCacheMisses();
+
+    double getScheduleCacheHitRatio();
+
+    long getResultCacheHits();
+
+    long getResultCacheMisses();
+
+    long getResultCacheEvictions();
+
+    double getResultCacheHitRatio();
+
+    long getValidationFailures();
+
+    long getCalculationLatencyP50Micros();
+
+    long getCalculationLatencyP99Micros();
+
+    long getAmountLatencyP50Micros();
+
+    long getAmountLatencyP99Micros();
+
+    /**
+     * reset every counter
+     */
+    void reset();
+}
@@ -0,0 +1,219 @@
+package org.example.util.logic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Sink of the amounts of a roster run, one fixed-size record per contribution period.
+ * The records are written to an off-heap buffer of a fixed number of records and the buffer is written to
+ * the file channel whenever it is full, so no result object is kept on the heap and the sink itself never
+ * grows with the number of records. The input is not covered, RosterBatchRunner.runRecords() still reads and
+ * sorts the whole roster on the heap. Read the records back with a Cursor.
+ * Amounts are fixed-point with DayBaseKernel.AMOUNT_SCALE decimal places, salaries are cents.
+ *
+ * Record layout, big-endian:
+ * <pre>
+ *  0  16 bytes employee id, US-ASCII padded with zeros
+ * 16  int      epoch day of the period start
+ * 20  int      epoch day of the period end
+ * 24  long     salary in cents
+ * 32  long     employee amount
+ * 40  long     employer amount
+ * </pre>
+ */
+public final class AmountRecordSink implements Closeable {
+
+    public static final int RECORD_SIZE = 48;
+    public static final int EMPLOYEE_ID_SIZE = 16;
+
+    private static final int START = 16;
+    private static final int END = 20;
+    private static final int SALARY = 24;
+    private static final int EE_AMOUNT = 32;
+    private static final int ER_AMOUNT = 40;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long written;
+
+    /**
+     * @param channel the channel the records are written to, it is closed by close()
+     * @param bufferRecords the number of records buffered before they are written
+     */
+    public AmountRecordSink(FileChannel channel, int bufferRecords) {
+        if (bufferRecords <= 0) {
+            throw new IllegalArgumentException("bufferRecords must be positive");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(bufferRecords, RECORD_SIZE));
+    }
+
+    /**
+     * Create or truncate a record file, the buffer size is set by the system property
+     * mpf.recordSink.bufferRecords, 65536 records by default.
+     */
+    public static AmountRecordSink create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new AmountRecordSink(channel, Integer.getInteger("mpf.recordSink.bufferRecords", 65536));
+    }
+
+    /**
+     * Append the amounts of one period, the buffer is written to the channel first if it is full.
+     * @param employeeId the employee, at most 16 US-ASCII characters
+     * @throws IllegalArgumentException if the employee id does not fit the record
+     */
+    public AmountRecordSink append(String employeeId, long startEpochDay, long endEpochDay, long salaryCents,
+                                   long eeAmount, long erAmount) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        int at = buffer.position();
+        putEmployeeId(at, employeeId);
+        buffer.putInt(at + START, Math.toIntExact(startEpochDay));
+        buffer.putInt(at + END, Math.toIntExact(endEpochDay));
+        buffer.putLong(at + SALARY, salaryCents);
+        buffer.putLong(at + EE_AMOUNT, eeAmount);
+        buffer.putLong(at + ER_AMOUNT, erAmount);
+        buffer.position(at + RECORD_SIZE);
+        return this;
+    }
+
+    /**
+     * Get a cursor over the records appended since the last flush.
+     */
+    public Cursor buffered() {
+        return new Cursor(buffer.duplicate().flip());
+    }
+
+    /**
+     * Write the buffered records to the channel.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        written += buffer.remaining() / RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * the number of records written to the channel and buffered
+     */
+    public long size() {
+        return written + buffer.position() / RECORD_SIZE;
+    }
+
+    /**
+     * Flush the buffered records and close the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void putEmployeeId(int at, String employeeId) {
+        if (employeeId.length() > EMPLOYEE_ID_SIZE) {
+            throw new IllegalArgumentException("employee id is longer than " + EMPLOYEE_ID_SIZE + ": " + employeeId);
+        }
+        for (int i = 0; i < EMPLOYEE_ID_SIZE; i++) {
+            char c = i < employeeId.length() ? employeeId.charAt(i) : 0;
+            if (c > 0x7F) {
+                throw new IllegalArgumentException("employee id is not US-ASCII: " + employeeId);
+            }
+            buffer.put(at + i, (byte) c);
+        }
+    }
+
+    /**
+     * Typed forward cursor over records, call next() before reading the first record.
+     */
+    public static final class Cursor {
+        private final ByteBuffer records;
+        private int at = -RECORD_SIZE;
+
+        /**
+         * @param records the records from the position to the limit of the buffer
+         */
+        public Cursor(ByteBuffer records) {
+            if (records.remaining() % RECORD_SIZE != 0) {
+                throw new IllegalArgumentException("records are truncated");
+            }
+            this.records = records.slice();
+        }
+
+        /**
+         * Map a record file read-only, the file must not be larger than 2 GB.
+         */
+        public static Cursor open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // the mapping stays valid after the channel is closed
+                return new Cursor(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        /**
+         * Move to the next record.
+         * @return false if there is no more record
+         */
+        public boolean next() {
+            if (at + RECORD_SIZE >= records.limit()) {
+                return false;
+            }
+            at += RECORD_SIZE;
+            return true;
+        }
+
+        public int size() {
+            return records.limit() / RECORD_SIZE;
+        }
+
+        public String getEmployeeId() {
+            int length = 0;
+            while (length < EMPLOYEE_ID_SIZE && records.get(at + length) != 0) {
+                length++;
+            }
+            byte[] id = new byte[length];
+            records.get(at, id);
+            return new String(id, StandardCharsets.US_ASCII);
+        }
+
+        public long getStartEpochDay() {
+            return records.getInt(at + START);
+        }
+
+        public long getEndEpochDay() {
+            return records.getInt(at + END);
+        }
+
+        public LocalDate getStartDate() {
+            return LocalDate.ofEpochDay(getStartEpochDay());
+        }
+
+        public LocalDate getEndDate() {
+            return LocalDate.ofEpochDay(getEndEpochDay());
+        }
+
+        public long getSalaryCents() {
+            return records.getLong(at + SALARY);
+        }
+
+        public long getEeAmount() {
+            return records.getLong(at + EE_AMOUNT);
+        }
+
+        public long getErAmount() {
+            return records.getLong(at + ER_AMOUNT);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package org.example.util.logic;
+
+import org.example.dto.ContributionPeriod;
+import org.example.dto.ContributionPeriodMore;
+import org.example.dto.MPFAmtResult;
+import org.example.enums.CalUserType;
+import org.example.enums.PayrollFrequency;
+import org.example.util.jmx.CalculationMetrics;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the amounts returned by MPFAmtCalculator.calculateAmount(), keyed by the schedule
+ * fingerprint, the user type and a hash of the salaries.
+ * The least recently used results are evicted when the cache holds more than maxEntries results or
+ * maxPeriods periods in total, and a result older than the time to live is not returned any more.
+ * A hit is checked against the periods and salaries of the request, so a fingerprint collision is a miss.
+ * The cache keeps unmodifiable copies: the lists are unmodifiable and the setters of their results and
+ * periods throw UnsupportedOperationException, so a caller cannot change the amounts another caller gets.
+ */
+public class AmountResultCache {
+
+    private final int maxEntries;
+    private final long maxPeriods;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long periods;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries the most results kept
+     * @param maxPeriods the most periods kept over all results
+     * @param ttl time to live of a result
+     * @param unit unit of the time to live
+     */
+    public AmountResultCache(int maxEntries, long maxPeriods, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0 || maxPeriods <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("result cache limits must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxPeriods = maxPeriods;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Create a cache configured by the system properties mpf.resultCache.maxEntries (disabled if not set),
+     * mpf.resultCache.maxPeriods (100 per entry by default) and mpf.resultCache.ttlSeconds (600 by default).
+     * @return the cache, null if it is disabled
+     */
+    public static AmountResultCache fromSystemProperties() {
+        int maxEntries = Integer.getInteger("mpf.resultCache.maxEntries", 0);
+        if (maxEntries <= 0) {
+            return null;
+        }
+        return new AmountResultCache(
+                maxEntries,
+                Long.getLong("mpf.resultCache.maxPeriods", 100L * maxEntries),
+                Long.getLong("mpf.resultCache.ttlSeconds", 600),
+                TimeUnit.SECONDS
+        );
+    }
+
+    /**
+     * Get the cached amounts of a schedule and salaries.
+     * @return the amounts, null if they are not cached
+     */
+    public synchronized List<MPFAmtResult> get(Key key, ContributionPeriodMore schedule, BigDecimal[] salaries) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdNanos > ttlNanos) {
+            remove(key, entry);
+            entry = null;
+        }
+        if (entry == null || !entry.matches(schedule, salaries)) {
+            misses++;
+            CalculationMetrics.getInstance().recordResultCacheMiss();
+            return null;
+        }
+        hits++;
+        CalculationMetrics.getInstance().recordResultCacheHit();
+        return entry.results;
+    }
+
+    /**
+     * Cache an unmodifiable copy of the amounts of a schedule, the least recently used results are evicted
+     * if the cache is full.
+     * @return the cached copy
+     */
+    public List<MPFAmtResult> put(Key key, List<MPFAmtResult> results) {
+        List<MPFAmtResult> copy = new ArrayList<>(results.size());
+        for (MPFAmtResult r : results) {
+            copy.add(new UnmodifiableResult(r));
+        }
+        return store(key, new Entry(Collections.unmodifiableList(copy), System.nanoTime()));
+    }
+
+    private synchronized List<MPFAmtResult> store(Key key, Entry entry) {
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            periods -= old.results.size();
+        }
+        periods += entry.results.size();
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || periods > maxPeriods) && eldest.hasNext()) {
+            Map.Entry<Key, Entry> e = eldest.next();
+            if (e.getValue() == entry) {
+                continue; // keep the new result even if it is larger than the limit
+            }
+            eldest.remove();
+            periods -= e.getValue().results.size();
+            evictions++;
+            CalculationMetrics.getInstance().recordResultCacheEviction();
+        }
+        return entry.results;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        periods = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        periods -= entry.results.size();
+        evictions++;
+        CalculationMetrics.getInstance().recordResultCacheEviction();
+    }
+
+    /**
+     * Fingerprint of the periods of a schedule and the boundary of the extra periods.
+     */
+    public static long scheduleFingerprint(ContributionPeriodMore schedule) {
+        long h = schedule.getBoundary();
+        for (int i = 0; i < schedule.size(); i++) {
+            ContributionPeriod p = schedule.get(i);
+            h = Fingerprints.mix(h, p.getStartDate().toEpochDay());
+            h = Fingerprints.mix(h, p.getEndDate().toEpochDay());
+        }
+        return Fingerprints.finish(h);
+    }
+
+    /**
+     * Hash of the salaries, salaries of another scale (e.g. 100 and 100.00) hash differently.
+     */
+    public static long salaryHash(BigDecimal[] salaries) {
+        long h = salaries.length;
+        for (BigDecimal salary : salaries) {
+            h = Fingerprints.mix(h, salary.hashCode());
+        }
+        return Fingerprints.finish(h);
+    }
+
+    /**
+     * Key of a result. The amounts also depend on the date of birth and the date of employment of the
+     * employee, they are part of the key.
+     */
+    public static final class Key {
+        private final PayrollFrequency frequency;
+        private final CalUserType userType;
+        private final long dateOfBirth;
+        private final long dateOfEmployment;
+        private final long scheduleFingerprint;
+        private final long salaryHash;
+
+        public Key(PayrollFrequency frequency, CalUserType userType, LocalDate dateOfBirth, LocalDate dateOfEmployment,
+                   long scheduleFingerprint, long salaryHash) {
+            this.frequency = frequency;
+            this.userType = userType;
+            this.dateOfBirth = dateOfBirth.toEpochDay();
+            this.dateOfEmployment = dateOfEmployment.toEpochDay();
+            this.scheduleFingerprint = scheduleFingerprint;
+            this.salaryHash = salaryHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key that = (Key) o;
+
+            return scheduleFingerprint == that.scheduleFingerprint &&
+                    salaryHash == that.salaryHash &&
+                    frequency == that.frequency &&
+                    userType == that.userType &&
+                    dateOfBirth == that.dateOfBirth &&
+                    dateOfEmployment == that.dateOfEmployment;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = scheduleFingerprint ^ salaryHash;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private static final class UnmodifiableResult extends MPFAmtResult {
+        private UnmodifiableResult(MPFAmtResult result) {
+            super(ContributionPeriod.unmodifiableCopy(result.getContributionPeriod()), result.getSalary(), result.getAmount());
+        }
+
+        @Override
+        public void setContributionPeriod(ContributionPeriod contributionPeriod) {
+            throw new UnsupportedOperationException("a cached result is unmodifiable");
+        }
+
+        @Override
+        public void setSalary(BigDecimal salary) {
+            throw new UnsupportedOperationException("a cached result is unmodifiable");
+        }
+
+        @Override
+        public void setAmount(BigDecimal amount) {
+            throw new UnsupportedOperationException("a cached result is unmodifiable");
+        }
+    }
+
+    private static final class Entry {
+        private final List<MPFAmtResult> results;
+        private final long createdNanos;
+
+        private Entry(List<MPFAmtResult> results, long createdNanos) {
+            this.results = results;
+            this.createdNanos = createdNanos;
+        }
+
+        private boolean matches(ContributionPeriodMore schedule, BigDecimal[] salaries) {
+            if (results.size() != salaries.length || schedule.size() != salaries.length) {
+                return false;
+            }
+            for (int i = 0; i < salaries.length; i++) {
+                MPFAmtResult r = results.get(i);
+                if (!r.getSalary().equals(salaries[i]) || !r.getContributionPeriod().equals(schedule.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
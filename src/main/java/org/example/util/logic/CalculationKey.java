@@ -0,0 +1,143 @@
+package org.example.util.logic;
+
+import org.example.enums.PayrollFrequency;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.OptionalLong;
+
+/**
+ * Immutable, normalised key of a schedule calculation built from a MPFDateCalculatorConfig, the
+ * payroll frequency and the holiday calendar version. Settings which the frequency does not use are dropped,
+ * so two configs which produce the same schedule give equal keys.
+ * The dates are kept as epoch days and a 64-bit fingerprint is calculated once, so equality is a few
+ * primitive comparisons and the key can be used by schedule caches, result caches and request coalescing.
+ */
+public final class CalculationKey {
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final PayrollFrequency frequency;
+    private final long calendarVersion;
+    private final long dateOfBirth;
+    private final long dateOfEmployment;
+    private final long endOfEmployment;
+    private final long deadlineForEnrol;
+    private final long morePeriod;
+    private final DayOfWeek weeklyCycle;
+    private final long pryllFnightStartDate;
+    private final int nonCalStartDay;
+    private final long fingerprint;
+
+    /**
+     * @param frequency payroll frequency
+     * @param calendarVersion version of the holiday calendar, see ScheduleCache.calendarVersion()
+     * @param cfg configuration object, later changes of the config do not affect the key
+     */
+    public CalculationKey(PayrollFrequency frequency, long calendarVersion, MPFDateCalculatorConfig cfg) {
+        this.frequency = frequency;
+        this.calendarVersion = calendarVersion;
+        this.dateOfBirth = toEpochDay(cfg.getDateOfBirth());
+        this.dateOfEmployment = toEpochDay(cfg.getDateOfEmployment());
+        this.endOfEmployment = toEpochDay(cfg.getEndOfEmployment());
+        this.deadlineForEnrol = toEpochDay(cfg.getDeadlineForEnrol());
+        this.morePeriod = cfg.getMorePeriod() != null && cfg.getMorePeriod().isPresent() ? cfg.getMorePeriod().getAsLong() : 0;
+        this.weeklyCycle = frequency == PayrollFrequency.WEEKLY ? cfg.getWeeklyCycle() : null;
+        this.pryllFnightStartDate = frequency == PayrollFrequency.FORTNIGHTLY ? toEpochDay(cfg.getPryllFnightStartDate()) : NO_DATE;
+        this.nonCalStartDay = frequency == PayrollFrequency.NON_CALENDAR_MONTH && cfg.getNonCalStartDay() != null
+                ? cfg.getNonCalStartDay() : 0;
+
+        long h = Fingerprints.mix(frequency.ordinal(), calendarVersion);
+        h = Fingerprints.mix(h, dateOfBirth);
+        h = Fingerprints.mix(h, dateOfEmployment);
+        h = Fingerprints.mix(h, endOfEmployment);
+        h = Fingerprints.mix(h, deadlineForEnrol);
+        h = Fingerprints.mix(h, morePeriod);
+        h = Fingerprints.mix(h, weeklyCycle == null ? 0 : weeklyCycle.getValue());
+        h = Fingerprints.mix(h, pryllFnightStartDate);
+        h = Fingerprints.mix(h, nonCalStartDay);
+        this.fingerprint = Fingerprints.finish(h);
+    }
+
+    public PayrollFrequency getFrequency() {
+        return frequency;
+    }
+
+    public long getCalendarVersion() {
+        return calendarVersion;
+    }
+
+    /**
+     * Get the 64-bit fingerprint of the key, equal keys have the same fingerprint.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Rebuild a config equivalent to the one the key was created from.
+     */
+    public MPFDateCalculatorConfig toConfig() {
+        MPFDateCalculatorConfig cfg = new MPFDateCalculatorConfig(toDate(dateOfBirth), toDate(dateOfEmployment))
+                .setEndOfEmployment(toDate(endOfEmployment))
+                .setDeadlineForEnrol(toDate(deadlineForEnrol))
+                .setWeeklyCycle(weeklyCycle)
+                .setPryllFnightStartDate(toDate(pryllFnightStartDate));
+        if (morePeriod > 0) {
+            cfg.setMorePeriod(OptionalLong.of(morePeriod));
+        }
+        if (nonCalStartDay > 0) {
+            cfg.setNonCalStartDay(nonCalStartDay);
+        }
+        return cfg;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CalculationKey that = (CalculationKey) o;
+
+        return fingerprint == that.fingerprint &&
+                frequency == that.frequency &&
+                calendarVersion == that.calendarVersion &&
+                dateOfBirth == that.dateOfBirth &&
+                dateOfEmployment == that.dateOfEmployment &&
+                endOfEmployment == that.endOfEmployment &&
+                deadlineForEnrol == that.deadlineForEnrol &&
+                morePeriod == that.morePeriod &&
+                weeklyCycle == that.weeklyCycle &&
+                pryllFnightStartDate == that.pryllFnightStartDate &&
+                nonCalStartDay == that.nonCalStartDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "CalculationKey{" +
+                "frequency=" + frequency +
+                ", calendarVersion=" + calendarVersion +
+                ", dateOfBirth=" + toDate(dateOfBirth) +
+                ", dateOfEmployment=" + toDate(dateOfEmployment) +
+                ", endOfEmployment=" + toDate(endOfEmployment) +
+                ", deadlineForEnrol=" + toDate(deadlineForEnrol) +
+                ", morePeriod=" + morePeriod +
+                ", weeklyCycle=" + weeklyCycle +
+                ", pryllFnightStartDate=" + toDate(pryllFnightStartDate) +
+                ", nonCalStartDay=" + nonCalStartDay +
+                ", fingerprint=" + Long.toHexString(fingerprint) +
+                '}';
+    }
+
+    private static long toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : date.toEpochDay();
+    }
+
+    private static LocalDate toDate(long epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
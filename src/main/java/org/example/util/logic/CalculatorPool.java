@@ -0,0 +1,71 @@
+package org.example.util.logic;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pool of idle calculators of one payroll frequency, so a batch or the service does not build a calculator,
+ * its middleware registry and holiday lookup for every employee.
+ * A calculator is taken by acquire() and given back by release() after use, it is reset when it is released.
+ * Calculators are pooled with their holiday list, acquire() skips the calculators of other lists and leaves
+ * them for their callers. When the pool is full the calculator released longest ago is dropped.
+ */
+public final class CalculatorPool {
+
+    private static final int DEFAULT_MAX_IDLE = Integer.getInteger("mpf.calculatorPool.maxIdle", 64);
+
+    private final Function<List<LocalDate>, MPFPayrollDateCalculatorLogic> factory;
+    private final int maxIdle;
+    private final ConcurrentLinkedDeque<MPFPayrollDateCalculatorLogic> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public CalculatorPool(Function<List<LocalDate>, MPFPayrollDateCalculatorLogic> factory) {
+        this(factory, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param factory creates a calculator when the pool has none for the holidays
+     * @param maxIdle the most idle calculators kept, the ones released longest ago are dropped beyond it
+     */
+    public CalculatorPool(Function<List<LocalDate>, MPFPayrollDateCalculatorLogic> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Take an idle calculator of the holidays or create one.
+     * @param holidays the holidays, the same list instance should be passed for the same calendar
+     */
+    public MPFPayrollDateCalculatorLogic acquire(List<LocalDate> holidays) {
+        List<LocalDate> wanted = holidays != null ? holidays : List.of();
+        for (MPFPayrollDateCalculatorLogic calculator : idle) {
+            // removeFirstOccurrence() claims the calculator, false if another thread took it first
+            if (calculator.dateUtils.getPublicHolidays() == wanted && idle.removeFirstOccurrence(calculator)) {
+                idleCount.decrementAndGet();
+                return calculator;
+            }
+        }
+        return factory.apply(holidays);
+    }
+
+    /**
+     * Reset a calculator and keep it for the next acquire(), it must not be used by the caller any more.
+     */
+    public void release(MPFPayrollDateCalculatorLogic calculator) {
+        calculator.reset();
+        idle.offerFirst(calculator);
+        if (idleCount.incrementAndGet() > maxIdle && idle.pollLast() != null) {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of idle calculators.
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+}
@@ -11,11 +11,19 @@ import java.util.List;
 public class DateUtils {
     
     private final List<LocalDate> publicHolidays;
+
+    // set when the holidays are a memory-mapped calendar, looked up by epoch day
+    private final HolidayCalendar calendar;
     
     public DateUtils(List<LocalDate> publicHolidays) {
         this.publicHolidays = publicHolidays != null ? publicHolidays : List.of();
+        this.calendar = publicHolidays instanceof HolidayCalendar ? (HolidayCalendar) publicHolidays : null;
     }
     
+    public List<LocalDate> getPublicHolidays() {
+        return publicHolidays;
+    }
+
     /**
      * Get the last date of the month
      */
@@ -88,6 +96,9 @@ public class DateUtils {
      * Check if a date is a public holiday
      */
     public boolean isPubHoliday(LocalDate date) {
+        if (calendar != null) {
+            return calendar.isHoliday(date.toEpochDay());
+        }
         return publicHolidays.contains(date);
     }
 
@@ -0,0 +1,136 @@
+package org.example.util.logic;
+
+import org.example.constant.MPFCalculatorConstants;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed-point arithmetic of the day-based contribution (non-calendar month, semi-monthly, fortnightly and weekly).
+ * It gives the same amounts as MPFAmtCalculator.calDayBase: zero below the minimum relevant income of the
+ * days, FLOAT_RATIO of the salary up to the maximum and the capped amount above it.
+ * Salaries are fixed-point cents, amounts are fixed-point with AMOUNT_SCALE decimal places, so no BigDecimal
+ * is created per period.
+ * The batch calculate() over arrays runs on the Vector API (DayBaseVectorKernel) when the JVM is started with
+ * --add-modules jdk.incubator.vector, otherwise on a scalar loop. Both give the same amounts.
+ */
+public final class DayBaseKernel {
+
+    private static final Logger logger = Logger.getLogger(DayBaseKernel.class.getName());
+
+    public static final int SALARY_SCALE = 2;
+    public static final int AMOUNT_SCALE = SALARY_SCALE + MPFCalculatorConstants.FLOAT_RATIO.scale();
+
+    // FLOAT_RATIO as an integer, amount units = salary cents * RATIO
+    static final long RATIO = MPFCalculatorConstants.FLOAT_RATIO.unscaledValue().longValueExact();
+    private static final long MIN_DAY_CENTS = toCents(MPFCalculatorConstants.G_INT_MIN_DAY);
+    private static final long MAX_DAY_CENTS = toCents(MPFCalculatorConstants.G_INT_MAX_DAY);
+
+    private static final Batch BATCH = loadBatch();
+
+    private DayBaseKernel() {
+    }
+
+    /**
+     * Calculate the amount of one period.
+     * @param days contribution days of the period
+     * @param salaryCents salary of the period in cents
+     * @return the amount, AMOUNT_SCALE decimal places
+     */
+    public static long calculate(long days, long salaryCents) {
+        long capped = Math.min(salaryCents, MAX_DAY_CENTS * days);
+        return salaryCents < MIN_DAY_CENTS * days ? 0 : capped * RATIO;
+    }
+
+    /**
+     * Calculate the amounts of many periods.
+     * @param days contribution days of each period
+     * @param salaryCents salary of each period in cents
+     * @param amounts receives the amount of each period, AMOUNT_SCALE decimal places
+     */
+    public static void calculate(long[] days, long[] salaryCents, long[] amounts) {
+        checkLengths(days, salaryCents, amounts);
+        BATCH.calculate(days, salaryCents, amounts);
+    }
+
+    /**
+     * The scalar loop of calculate(), used when the Vector API is not available.
+     */
+    public static void calculateScalar(long[] days, long[] salaryCents, long[] amounts) {
+        checkLengths(days, salaryCents, amounts);
+        calculateScalar(days, salaryCents, amounts, 0);
+    }
+
+    /**
+     * Whether calculate() runs on the Vector API.
+     */
+    public static boolean isVectorized() {
+        return !(BATCH instanceof ScalarBatch);
+    }
+
+    static void calculateScalar(long[] days, long[] salaryCents, long[] amounts, int from) {
+        for (int i = from; i < amounts.length; i++) {
+            amounts[i] = calculate(days[i], salaryCents[i]);
+        }
+    }
+
+    static long minDayCents() {
+        return MIN_DAY_CENTS;
+    }
+
+    static long maxDayCents() {
+        return MAX_DAY_CENTS;
+    }
+
+    private static void checkLengths(long[] days, long[] salaryCents, long[] amounts) {
+        if (days.length != amounts.length || salaryCents.length != amounts.length) {
+            throw new IllegalArgumentException("days, salaries and amounts have different length");
+        }
+    }
+
+    /**
+     * The vector kernel is loaded by name, so this class does not link against jdk.incubator.vector when the
+     * module is not in the boot layer.
+     */
+    private static Batch loadBatch() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Batch) Class.forName(DayBaseKernel.class.getPackageName() + ".DayBaseVectorKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.log(Level.WARNING, "Vector API kernel not available, use the scalar loop", e);
+            }
+        }
+        return new ScalarBatch();
+    }
+
+    interface Batch {
+        void calculate(long[] days, long[] salaryCents, long[] amounts);
+    }
+
+    private static final class ScalarBatch implements Batch {
+        @Override
+        public void calculate(long[] days, long[] salaryCents, long[] amounts) {
+            calculateScalar(days, salaryCents, amounts, 0);
+        }
+    }
+
+    /**
+     * from salary to fixed-point cents, salaries are not rounded, RosterRecord rejects the ones of more than
+     * 2 decimal places before they reach either calculation path
+     * @throws ArithmeticException if the salary has more than 2 decimal places
+     */
+    public static long toCents(BigDecimal salary) {
+        return salary.setScale(SALARY_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * from fixed-point amount to BigDecimal
+     */
+    public static BigDecimal toAmount(long amount) {
+        return BigDecimal.valueOf(amount, AMOUNT_SCALE);
+    }
+}
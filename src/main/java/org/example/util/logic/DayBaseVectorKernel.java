@@ -0,0 +1,35 @@
+package org.example.util.logic;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * DayBaseKernel.calculate() over arrays on the Vector API, the lanes do the same arithmetic as
+ * DayBaseKernel.calculate(long, long) and the tail shorter than a vector runs on the scalar loop.
+ * Only loaded by DayBaseKernel when jdk.incubator.vector is in the boot layer.
+ */
+final class DayBaseVectorKernel implements DayBaseKernel.Batch {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void calculate(long[] days, long[] salaryCents, long[] amounts) {
+        long minDayCents = DayBaseKernel.minDayCents();
+        long maxDayCents = DayBaseKernel.maxDayCents();
+        int bound = SPECIES.loopBound(amounts.length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            LongVector d = LongVector.fromArray(SPECIES, days, i);
+            LongVector salary = LongVector.fromArray(SPECIES, salaryCents, i);
+            // below the minimum relevant income of the days nothing is paid
+            VectorMask<Long> belowMin = salary.compare(VectorOperators.LT, d.mul(minDayCents));
+            salary.min(d.mul(maxDayCents))
+                    .mul(DayBaseKernel.RATIO)
+                    .blend(0L, belowMin)
+                    .intoArray(amounts, i);
+        }
+        DayBaseKernel.calculateScalar(days, salaryCents, amounts, i);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.util.logic;
+
+/**
+ * 64-bit fingerprint mixing shared by the calculation and result cache keys.
+ * Start with any seed, mix() every value in a fixed order and finish() the result.
+ */
+final class Fingerprints {
+
+    private Fingerprints() {
+    }
+
+    static long mix(long h, long value) {
+        h = (h ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    // final avalanche of SplitMix64
+    static long finish(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.util.logic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled holiday calendar memory-mapped read-only from a file, so every process shares the same pages
+ * and opening it costs the same whatever the number of years in the calendar.
+ * It is a sorted, read-only list of the holidays and can be passed wherever a holiday list is expected,
+ * contains() is a bitmap lookup instead of a scan of the list.
+ *
+ * File layout, big-endian:
+ * <pre>
+ *  0  int   magic "MPFH"
+ *  4  int   format version
+ *  8  long  calendar version, ScheduleCache.calendarVersion() of the holidays
+ * 16  long  epoch day of the first day in the bitmap
+ * 24  int   number of days in the bitmap
+ * 28  int   number of holidays
+ * 32  long  CRC32 of everything after the header
+ * 40  the bitmap, bit (day - first day) is set for a holiday, padded to 8 bytes
+ *     the epoch days of the holidays in ascending order, one int each
+ * </pre>
+ */
+public final class HolidayCalendar extends AbstractList<LocalDate> implements RandomAccess {
+
+    private static final int MAGIC = 0x4D504648; // "MPFH"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+
+    private final ByteBuffer buffer;
+    private final long version;
+    private final long firstEpochDay;
+    private final int dayCount;
+    private final int holidayCount;
+    private final long checksum;
+    private final int holidaysOffset;
+
+    private HolidayCalendar(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a compiled holiday calendar");
+        }
+        int format = buffer.getInt(4);
+        if (format != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported holiday calendar format " + format);
+        }
+        this.buffer = buffer;
+        this.version = buffer.getLong(8);
+        this.firstEpochDay = buffer.getLong(16);
+        this.dayCount = buffer.getInt(24);
+        this.holidayCount = buffer.getInt(28);
+        this.checksum = buffer.getLong(32);
+        this.holidaysOffset = HEADER_SIZE + bitmapSize(dayCount);
+        if (buffer.capacity() != holidaysOffset + 4L * holidayCount) {
+            throw new IllegalArgumentException("holiday calendar is truncated");
+        }
+    }
+
+    /**
+     * Map a compiled calendar file, only the header is read.
+     * @param file the file written by compile()
+     * @throws IllegalArgumentException if the file is not a compiled calendar of this format
+     */
+    public static HolidayCalendar open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new HolidayCalendar(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Check if a file starts with the magic number of a compiled calendar.
+     */
+    public static boolean isCompiled(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // read the magic number
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Compile holidays to a calendar file. The bitmap covers the whole years of the first and the last holiday.
+     * The file is written next to the target and moved in place, processes which have mapped the old file keep
+     * reading the old calendar.
+     * @param holidays the holidays, in any order, duplicates are ignored
+     * @param file the calendar file
+     */
+    public static void compile(List<LocalDate> holidays, Path file) throws IOException {
+        int[] days = holidays.stream().mapToInt(d -> Math.toIntExact(d.toEpochDay())).sorted().distinct().toArray();
+        long first = days.length == 0 ? 0 : LocalDate.ofEpochDay(days[0]).withDayOfYear(1).toEpochDay();
+        long last = days.length == 0 ? -1 : LocalDate.ofEpochDay(days[days.length - 1]).withDayOfYear(1).plusYears(1).toEpochDay() - 1;
+        int dayCount = Math.toIntExact(last - first + 1);
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + bitmapSize(dayCount) + 4 * days.length);
+        out.putInt(0, MAGIC);
+        out.putInt(4, FORMAT_VERSION);
+        out.putLong(8, ScheduleCache.calendarVersion(holidays));
+        out.putLong(16, first);
+        out.putInt(24, dayCount);
+        out.putInt(28, days.length);
+        int holidaysOffset = HEADER_SIZE + bitmapSize(dayCount);
+        for (int i = 0; i < days.length; i++) {
+            int bit = (int) (days[i] - first);
+            int index = HEADER_SIZE + (bit >>> 3);
+            out.put(index, (byte) (out.get(index) | (1 << (bit & 7))));
+            out.putInt(holidaysOffset + 4 * i, days[i]);
+        }
+        out.putLong(32, crc(out));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Check the checksum of the whole file, this reads every page of the calendar.
+     * @throws IllegalStateException if the calendar is corrupted
+     */
+    public HolidayCalendar verify() {
+        if (crc(buffer) != checksum) {
+            throw new IllegalStateException("holiday calendar checksum mismatch");
+        }
+        return this;
+    }
+
+    /**
+     * Check if an epoch day is a holiday, days out of the calendar are not holidays.
+     */
+    public boolean isHoliday(long epochDay) {
+        long bit = epochDay - firstEpochDay;
+        if (bit < 0 || bit >= dayCount) {
+            return false;
+        }
+        return (buffer.get(HEADER_SIZE + (int) (bit >>> 3)) & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * The calendar version, equal to ScheduleCache.calendarVersion() of the holidays.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof LocalDate && isHoliday(((LocalDate) o).toEpochDay());
+    }
+
+    @Override
+    public LocalDate get(int index) {
+        if (index < 0 || index >= holidayCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return LocalDate.ofEpochDay(buffer.getInt(holidaysOffset + 4 * index));
+    }
+
+    @Override
+    public int size() {
+        return holidayCount;
+    }
+
+    private static int bitmapSize(int dayCount) {
+        return ((dayCount + 63) >>> 6) << 3;
+    }
+
+    private static long crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        crc.update(body);
+        return crc.getValue();
+    }
+}
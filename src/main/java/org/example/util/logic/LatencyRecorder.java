@@ -0,0 +1,91 @@
+package org.example.util.logic;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency of calls in a log-linear histogram and reports percentiles over it.
+ * Every power of two is split into 16 buckets, so a percentile is the upper bound of its bucket and at most
+ * 1/16 above the recorded latency. The buckets are LongAdders, recording takes no lock and threads recording
+ * at the same time do not contend, which also keeps a virtual thread from being pinned.
+ * The percentiles are over every call since the recorder was created.
+ */
+public class LatencyRecorder {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values below SUB_BUCKETS have a bucket each, then SUB_BUCKETS buckets per power of two up to 2^62
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+
+    public LatencyRecorder() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record the latency of one call.
+     * @param nanos the latency in nanoseconds, a negative one is recorded as 0
+     */
+    public void record(long nanos) {
+        buckets[bucketOf(Math.max(nanos, 0))].increment();
+        count.increment();
+    }
+
+    /**
+     * Get the total number of calls recorded.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the percentile of the latencies.
+     * @param percentile between 0 and 100
+     * @return the latency in nanoseconds, 0 if nothing is recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        // copy the counts once, other threads keep recording and the total must match the walk below
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(counts.length - 1);
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -3,23 +3,42 @@ package org.example.util.logic;
 import org.example.constant.MPFCalculatorConstants;
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.dto.EmployeeResult;
 import org.example.dto.MPFAmtResult;
+import org.example.dto.ProjectionTotal;
 import org.example.enums.CalUserType;
 import org.example.enums.PayrollFrequency;
+import org.example.util.intf.ContributionFunction;
+import org.example.util.intf.ProjectionListener;
+import org.example.util.intf.SalaryGrowthFunction;
 import org.example.util.intf.TriFunction;
+import org.example.util.jmx.CalculationMetrics;
+import org.example.util.jfr.AmountEvent;
+import org.example.util.jfr.ReportEvent;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-public class MPFAmtCalculator {
+/**
+ * Calculates the schedule and amounts of one employee. The date calculator is taken from the pool of the
+ * payroll frequency, close() gives it back, the instance must not be used afterwards.
+ */
+public class MPFAmtCalculator implements AutoCloseable {
+    private static final long MIN_CALENDAR_MONTH_CENTS = DayBaseKernel.toCents(MPFCalculatorConstants.G_INT_MIN_CALENDAR_MONTH);
+    private static final long MAX_CALENDAR_MONTH_CENTS = DayBaseKernel.toCents(MPFCalculatorConstants.G_INT_MAX_CALENDAR_MONTH);
+
     private final PayrollFrequency pf;
     private MPFPayrollDateCalculatorLogic logic;
     private ContributionPeriodMore cache;
     private List<MPFAmtResult> results;
+    private CalUserType resultsUserType;
+    private AmountResultCache resultCache;
+    private long cacheFingerprint;
+    // end of employment applied to the schedule by applyEndOfEmployment(), null if the configured one is used
+    private LocalDate appliedEndOfEmployment;
 
     /**
      * constructor
@@ -86,25 +105,195 @@ public class MPFAmtCalculator {
         return this;
     }
 
+    /**
+     * Give the date calculator back to the pool of the payroll frequency.
+     * The schedule and amounts returned before stay valid.
+     */
+    @Override
+    public void close() {
+        if (logic != null) {
+            pf.releaseCalculator(logic);
+            logic = null;
+        }
+    }
+
+    /**
+     * Put a result cache in front of calculateAmount().
+     * @param resultCache the cache, null to calculate every time
+     * @return this instance for method chaining
+     */
+    public MPFAmtCalculator setResultCache(AmountResultCache resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
     public ContributionPeriodMore calculateDate() throws Exception {
+        long start = System.nanoTime();
         cache = logic.calculate();
+        cacheFingerprint = 0;
+        appliedEndOfEmployment = null;
+        CalculationMetrics.getInstance().recordCalculation(
+                pf,
+                cache.size(),
+                System.nanoTime() - start
+        );
         return cache;
     }
 
+    /**
+     * Use a schedule calculated before with the same configuration instead of calling calculateDate(),
+     * e.g. a schedule shared by coalesced or cached calculations.
+     * @param schedule the schedule
+     * @return this instance for method chaining
+     */
+    public MPFAmtCalculator useSchedule(ContributionPeriodMore schedule) {
+        cache = schedule;
+        cacheFingerprint = 0;
+        appliedEndOfEmployment = null;
+        results = null;
+        resultsUserType = null;
+        return this;
+    }
+
+    /**
+     * Calculate the amounts of the schedule.
+     * With a result cache, a list of a previous calculation of the same schedule, user type and salaries is
+     * returned without calculating again, and the returned list is always the unmodifiable cached copy.
+     * @param userType employee or employer
+     * @param salaries the salary of each period
+     * @return amounts
+     */
     public List<MPFAmtResult> calculateAmount(CalUserType userType, BigDecimal ...salaries) {
+        AmountEvent event = new AmountEvent();
+        event.begin();
+        AmountResultCache.Key key = resultCache != null && cache != null ? getResultKey(userType, salaries) : null;
+        List<MPFAmtResult> result = key != null ? resultCache.get(key, cache, salaries) : null;
+        if (result != null) {
+            results = result;
+        } else {
+            long start = System.nanoTime();
+            result = calAmt(getCalFunc(userType), List.of(), salaries);
+            CalculationMetrics.getInstance().recordAmounts(result.size(), System.nanoTime() - start);
+            if (key != null) {
+                result = resultCache.put(key, result);
+            }
+        }
+        resultsUserType = userType;
+        event.end();
+        if (event.shouldCommit()) {
+            event.frequency = pf.name();
+            event.userType = userType.name();
+            event.periodCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Calculate the employee and employer amounts of the schedule in one pass, the same amounts as
+     * calculateAmount() of both user types. The contribution days of a period are counted once for each
+     * side and the threshold comparisons are shared when both sides have the same days.
+     * The employer amounts are kept for applyEndOfEmployment() and getAmtReport().
+     * @param employeeId the employee of the result
+     * @param salaries the salary of each period
+     * @return amounts of both user types
+     */
+    public EmployeeResult calculateAmounts(String employeeId, BigDecimal ...salaries) {
+        AmountEvent event = new AmountEvent();
+        event.begin();
+        AmountResultCache.Key eeKey = null;
+        AmountResultCache.Key erKey = null;
+        List<MPFAmtResult> eeResults = null;
+        List<MPFAmtResult> erResults = null;
+        if (resultCache != null && cache != null) {
+            eeKey = getResultKey(CalUserType.EMPLOYEE, salaries);
+            erKey = getResultKey(CalUserType.EMPLOYER, salaries);
+            eeResults = resultCache.get(eeKey, cache, salaries);
+            erResults = eeResults != null ? resultCache.get(erKey, cache, salaries) : null;
+        }
+        if (eeResults == null || erResults == null) {
+            long start = System.nanoTime();
+            eeResults = new ArrayList<>(salaries.length);
+            erResults = new ArrayList<>(salaries.length);
+            calAmtBoth(eeResults, erResults, salaries);
+            CalculationMetrics.getInstance().recordAmounts(2 * salaries.length, System.nanoTime() - start);
+            if (eeKey != null) {
+                eeResults = resultCache.put(eeKey, eeResults);
+                erResults = resultCache.put(erKey, erResults);
+            }
+        }
+        results = erResults;
+        resultsUserType = CalUserType.EMPLOYER;
+        event.end();
+        if (event.shouldCommit()) {
+            event.frequency = pf.name();
+            event.userType = "BOTH";
+            event.periodCount = salaries.length;
+            event.commit();
+        }
+        return new EmployeeResult(employeeId, eeResults, erResults);
+    }
+
+    /**
+     * Apply the end of employment to the calculated schedule without regenerating the periods.
+     * @param endOfEmployment the end of employment date
+     * @return the rectified schedule
+     */
+    public ContributionPeriodMore applyEndOfEmployment(LocalDate endOfEmployment) {
+        if (cache == null) {
+            throw new IllegalStateException("applyEndOfEmployment cache is null, call calculateDate() first");
+        }
+        cache = logic.applyEndOfEmployment(cache, endOfEmployment);
+        cacheFingerprint = 0;
+        appliedEndOfEmployment = endOfEmployment;
+        return cache;
+    }
+
+    /**
+     * Apply the end of employment to the calculated schedule and amounts.
+     * The amounts of the periods which are not changed by the rectification are reused from the last
+     * calculateAmount() of the same user type, only the rectified periods are calculated again.
+     * @param endOfEmployment the end of employment date
+     * @param userType employee or employer
+     * @param salaries the salaries of the rectified schedule
+     * @return amounts of the rectified schedule
+     */
+    public List<MPFAmtResult> applyEndOfEmployment(LocalDate endOfEmployment, CalUserType userType, BigDecimal ...salaries) {
+        List<MPFAmtResult> previous = userType.equals(resultsUserType) && results != null ? results : List.of();
+        applyEndOfEmployment(endOfEmployment);
+        List<MPFAmtResult> result = calAmt(getCalFunc(userType), previous, salaries);
+        resultsUserType = userType;
+        return result;
+    }
+
+    private AmountResultCache.Key getResultKey(CalUserType userType, BigDecimal[] salaries) {
+        if (cacheFingerprint == 0) {
+            cacheFingerprint = AmountResultCache.scheduleFingerprint(cache);
+        }
+        return new AmountResultCache.Key(
+                pf,
+                userType,
+                logic.getDateOfBirth(),
+                logic.getDateOfEmployment(),
+                cacheFingerprint,
+                AmountResultCache.salaryHash(salaries)
+        );
+    }
+
+    private TriFunction<ContributionPeriod,BigDecimal,Boolean,BigDecimal> getCalFunc(CalUserType userType) {
         boolean isEE = userType.equals(CalUserType.EMPLOYEE);
         return switch (pf) {
             case MONTHLY -> {
                 if (isEE) {
-                    yield calAmt(this::calEEMonthBase, salaries);
+                    yield this::calEEMonthBase;
                 }
-                yield calAmt(this::calERMonthBase, salaries);
+                yield this::calERMonthBase;
             }
             case NON_CALENDAR_MONTH, SEMI_MONTHLY, WEEKLY, FORTNIGHTLY -> {
                 if (isEE) {
-                    yield calAmt(this::calEEDayBase, salaries);
+                    yield this::calEEDayBase;
                 }
-                yield calAmt(this::calERDayBase, salaries);
+                yield this::calERDayBase;
             }
         };
     }
@@ -112,25 +301,44 @@ public class MPFAmtCalculator {
     public List<MPFAmtResult> calAmt(
             TriFunction<ContributionPeriod,BigDecimal,Boolean,BigDecimal> calFunc,
             BigDecimal ...salaries
+    ){
+        List<MPFAmtResult> result = calAmt(calFunc, List.of(), salaries);
+        resultsUserType = null; // unknown function, the result can not be reused
+        return result;
+    }
+
+    /**
+     * @param calFunc the amount function
+     * @param reusable results calculated by the same function before, reused when period and salary are unchanged
+     * @param salaries the salaries of each period
+     * @return amounts
+     */
+    private List<MPFAmtResult> calAmt(
+            TriFunction<ContributionPeriod,BigDecimal,Boolean,BigDecimal> calFunc,
+            List<MPFAmtResult> reusable,
+            BigDecimal ...salaries
     ){
         if (cache == null) {
             throw new IllegalStateException("calAmt cache is null, call calculateDate() first");
         }
 
-        List<ContributionPeriod> periods = Stream.concat(
-                cache.getPeriod().stream(),
-                cache.getPeriodMore().stream()
-                ).toList();
-        if (periods.size() != salaries.length) {
+        if (cache.size() != salaries.length) {
             throw new IllegalStateException("calAmt cache size is different with salaries");
         }
 
         // result set
-        List<MPFAmtResult> result = new ArrayList<>(periods.size());
-
-        long boundary = cache.getPeriod().size();
-        for(int i = 0 ; i < periods.size(); i++){
-            ContributionPeriod p = periods.get(i);
+        List<MPFAmtResult> result = new ArrayList<>(salaries.length);
+
+        long boundary = cache.getBoundary();
+        for(int i = 0 ; i < salaries.length; i++){
+            ContributionPeriod p = cache.get(i);
+            if (i < reusable.size() &&
+                    p.equals(reusable.get(i).getContributionPeriod()) &&
+                    salaries[i].equals(reusable.get(i).getSalary())
+            ) {
+                result.add(reusable.get(i)); // unchanged period, no need to calculate again
+                continue;
+            }
             boolean afterExemption = false; //   if (i < boundary)
             if (!cache.getPeriodMore().isEmpty() && i >= boundary) {
                 afterExemption = true;
@@ -138,7 +346,7 @@ public class MPFAmtCalculator {
             BigDecimal amt = calFunc.apply(p,salaries[i], afterExemption);
             result.add(
                     new MPFAmtResult(
-                            periods.get(i),
+                            p,
                             salaries[i],
                             amt
                     )
@@ -150,6 +358,215 @@ public class MPFAmtCalculator {
         return result;
     }
 
+    /**
+     * one pass of calculateAmounts()
+     * @param eeResults receives the employee amounts
+     * @param erResults receives the employer amounts
+     * @param salaries the salaries of each period
+     */
+    private void calAmtBoth(List<MPFAmtResult> eeResults, List<MPFAmtResult> erResults, BigDecimal[] salaries) {
+        if (cache == null) {
+            throw new IllegalStateException("calAmt cache is null, call calculateDate() first");
+        }
+        if (cache.size() != salaries.length) {
+            throw new IllegalStateException("calAmt cache size is different with salaries");
+        }
+
+        boolean isMonthBase = pf == PayrollFrequency.MONTHLY;
+        boolean hasMore = !cache.getPeriodMore().isEmpty();
+        int boundary = cache.getBoundary();
+        for (int i = 0; i < salaries.length; i++) {
+            ContributionPeriod p = cache.get(i);
+            BigDecimal salary = salaries[i];
+            boolean afterExemption = hasMore && i >= boundary;
+
+            BigDecimal erAmt;
+            BigDecimal eeAmt;
+            if (isMonthBase) {
+                erAmt = calMonthBase(salary);
+                eeAmt = afterExemption ? erAmt : BigDecimal.ZERO;
+            } else {
+                long startDay = p.getStartDate().toEpochDay();
+                long endDay = p.getEndDate().toEpochDay();
+                long erDays = logic.getErContrDateDiff(startDay, endDay);
+                erAmt = calDayBase(erDays, salary);
+                if (!afterExemption) {
+                    eeAmt = BigDecimal.ZERO;
+                } else {
+                    long eeDays = logic.getEeContrDateDiff(startDay, endDay);
+                    eeAmt = eeDays == erDays ? erAmt : calDayBase(eeDays, salary);
+                }
+            }
+            eeResults.add(new MPFAmtResult(p, salary, eeAmt));
+            erResults.add(new MPFAmtResult(p, salary, erAmt));
+        }
+    }
+
+    /**
+     * Calculate the amounts on primitive values, the salaries and the returned amounts are fixed-point
+     * (see DayBaseKernel) so no BigDecimal or boxed value is created per period.
+     * @param userType employee or employer
+     * @param salaryCents the salary of each period in cents
+     * @return the amount of each period, DayBaseKernel.AMOUNT_SCALE decimal places
+     */
+    public long[] calculateAmountFixed(CalUserType userType, long ...salaryCents) {
+        AmountEvent event = new AmountEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long[] amounts = calAmtFixed(getContributionFunction(userType), salaryCents);
+        CalculationMetrics.getInstance().recordAmounts(amounts.length, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.frequency = pf.name();
+            event.userType = userType.name();
+            event.periodCount = amounts.length;
+            event.commit();
+        }
+        return amounts;
+    }
+
+    /**
+     * @param calFunc the primitive amount function
+     * @param salaryCents the salary of each period in cents
+     * @return the amount of each period
+     */
+    public long[] calAmtFixed(ContributionFunction calFunc, long ...salaryCents) {
+        if (cache == null) {
+            throw new IllegalStateException("calAmt cache is null, call calculateDate() first");
+        }
+        if (cache.size() != salaryCents.length) {
+            throw new IllegalStateException("calAmt cache size is different with salaries");
+        }
+
+        long[] amounts = new long[salaryCents.length];
+        int boundary = cache.getBoundary(); // the extra periods are after the exemption
+        for (int i = 0; i < salaryCents.length; i++) {
+            ContributionPeriod p = cache.get(i);
+            amounts[i] = calFunc.apply(p.getStartDate().toEpochDay(), p.getEndDate().toEpochDay(), salaryCents[i], i >= boundary);
+        }
+        return amounts;
+    }
+
+    /**
+     * Project the contributions of the whole career, from the first contribution period to the period of the
+     * 65th birthday or the end of employment. The periods of the calculated schedule come first, the regular
+     * periods after it are generated one at a time, so the career-long schedule is never held in memory.
+     * The amounts are fixed-point, see calculateAmountFixed().
+     * @param growth the salary of each period
+     * @param listener receives every period with the running totals, may be null
+     * @return the totals
+     */
+    public ProjectionTotal project(SalaryGrowthFunction growth, ProjectionListener listener) throws Exception {
+        ContributionPeriodMore schedule = cache != null ? cache : calculateDate();
+        Projection projection = new Projection(
+                growth,
+                listener,
+                getContributionFunction(CalUserType.EMPLOYEE),
+                getContributionFunction(CalUserType.EMPLOYER)
+        );
+        LocalDate end = appliedEndOfEmployment != null ? appliedEndOfEmployment : logic.getEndOfEmployment();
+        long lastDay = logic.getProjectionEnd(end).toEpochDay();
+
+        int boundary = schedule.getBoundary();
+        for (int i = 0; i < schedule.size(); i++) {
+            ContributionPeriod p = schedule.get(i);
+            long startDay = p.getStartDate().toEpochDay();
+            if (startDay > lastDay) {
+                return projection.toTotal();
+            }
+            projection.add(startDay, p.getEndDate().toEpochDay(), i >= boundary);
+        }
+        if (projection.count == 0) {
+            return projection.toTotal();
+        }
+
+        // the regular periods after the schedule, the extra periods are after the exemption already
+        long endOfEmployment = end != null ? end.toEpochDay() : Long.MAX_VALUE;
+        long startDay = projection.lastEnd + 1;
+        while (startDay <= lastDay) {
+            long endDay = Math.min(logic.calPeriodEnd(LocalDate.ofEpochDay(startDay)).toEpochDay(), endOfEmployment);
+            projection.add(startDay, endDay, true);
+            startDay = endDay + 1;
+        }
+        return projection.toTotal();
+    }
+
+    /**
+     * running totals of project()
+     */
+    private static final class Projection {
+        private final SalaryGrowthFunction growth;
+        private final ProjectionListener listener;
+        private final ContributionFunction eeFunc;
+        private final ContributionFunction erFunc;
+        private int count;
+        private long lastEnd = Long.MIN_VALUE;
+        private long eeTotal;
+        private long erTotal;
+
+        private Projection(SalaryGrowthFunction growth, ProjectionListener listener, ContributionFunction eeFunc, ContributionFunction erFunc) {
+            this.growth = growth;
+            this.listener = listener;
+            this.eeFunc = eeFunc;
+            this.erFunc = erFunc;
+        }
+
+        private void add(long startDay, long endDay, boolean afterExemption) {
+            long salaryCents = growth.salaryCents(count, startDay);
+            eeTotal += eeFunc.apply(startDay, endDay, salaryCents, afterExemption);
+            erTotal += erFunc.apply(startDay, endDay, salaryCents, afterExemption);
+            count++;
+            lastEnd = endDay;
+            if (listener != null) {
+                listener.onPeriod(startDay, endDay, salaryCents, eeTotal, erTotal);
+            }
+        }
+
+        private ProjectionTotal toTotal() {
+            return new ProjectionTotal(
+                    count,
+                    count == 0 ? null : LocalDate.ofEpochDay(lastEnd),
+                    DayBaseKernel.toAmount(eeTotal),
+                    DayBaseKernel.toAmount(erTotal)
+            );
+        }
+    }
+
+    /**
+     * Every built-in function is the same lambda class, so the call site in calAmtFixed stays monomorphic
+     * across frequencies and user types and the JIT can inline it.
+     */
+    private ContributionFunction getContributionFunction(CalUserType userType) {
+        boolean isEE = userType.equals(CalUserType.EMPLOYEE);
+        boolean isMonthBase = pf == PayrollFrequency.MONTHLY;
+        return (startEpochDay, endEpochDay, salaryCents, afterExemption) ->
+                calContribution(isEE, isMonthBase, startEpochDay, endEpochDay, salaryCents, afterExemption);
+    }
+
+    private long calContribution(boolean isEE, boolean isMonthBase, long startEpochDay, long endEpochDay, long salaryCents, boolean afterExemption) {
+        // the employee does not pay before the exemption date
+        if (isEE && !afterExemption) {
+            return 0;
+        }
+        if (isMonthBase) {
+            return calMonthBaseFixed(salaryCents);
+        }
+        long days = isEE
+                ? logic.getEeContrDateDiff(startEpochDay, endEpochDay)
+                : logic.getErContrDateDiff(startEpochDay, endEpochDay);
+        return DayBaseKernel.calculate(days, salaryCents);
+    }
+
+    /**
+     * fixed-point version of calMonthBase
+     */
+    private static long calMonthBaseFixed(long salaryCents) {
+        if (salaryCents < MIN_CALENDAR_MONTH_CENTS) {
+            return 0;
+        }
+        return Math.min(salaryCents, MAX_CALENDAR_MONTH_CENTS) * DayBaseKernel.RATIO;
+    }
+
     /**
      *
      * @param c the contribution period
@@ -184,7 +601,7 @@ public class MPFAmtCalculator {
         if (salary.compareTo(MPFCalculatorConstants.G_INT_MIN_CALENDAR_MONTH) < 0) { // if month salary < min, no need to pay
             return BigDecimal.ZERO;// //todo   employer should no need
         }else if (salary.compareTo(MPFCalculatorConstants.G_INT_MAX_CALENDAR_MONTH) > 0) { // if month salary > max, pay the max
-            return MPFCalculatorConstants.G_INT_MAX_CALENDAR_MONTH.multiply(MPFCalculatorConstants.FLOAT_RATIO);
+            return MPFCalculatorConstants.THRESHOLDS.getMaxCalendarMonthContribution();
         }
 
         return salary.multiply(MPFCalculatorConstants.FLOAT_RATIO);
@@ -204,11 +621,7 @@ public class MPFAmtCalculator {
         }
 
         // employee the days in period
-        BigDecimal eeDiff = new BigDecimal(
-                Long.toString(
-                        logic.getEeContrDateDiff(c.getStartDate(),c.getEndDate())
-                )
-        );
+        long eeDiff = logic.getEeContrDateDiff(c.getStartDate(),c.getEndDate());
         return calDayBase(eeDiff,salary);
     }
 
@@ -221,31 +634,29 @@ public class MPFAmtCalculator {
      */
     private BigDecimal calERDayBase(ContributionPeriod c, BigDecimal salary, boolean afterExemption){
         // employee the days in period
-        BigDecimal eeDiff = new BigDecimal(
-                Long.toString(
-                        logic.getErContrDateDiff(c.getStartDate(),c.getEndDate())
-                )
-        );
-        return calDayBase(eeDiff,salary);
+        long erDiff = logic.getErContrDateDiff(c.getStartDate(),c.getEndDate());
+        return calDayBase(erDiff,salary);
     }
 
     /**
-     * calculate the amount need to pay in the period
+     * calculate the amount need to pay in the period, DayBaseKernel is the fixed-point version of it
      * @param diff the days during period
      * @param salary the wage occurred during the period
      * @return amount
      */
-    private BigDecimal calDayBase(BigDecimal diff, BigDecimal salary){
-        if (salary.compareTo(MPFCalculatorConstants.G_INT_MIN_DAY.multiply(diff)) < 0) { // salary < minimum_day * days_in_period
+    public static BigDecimal calDayBase(long diff, BigDecimal salary){
+        if (salary.compareTo(MPFCalculatorConstants.THRESHOLDS.minRelevantIncome(diff)) < 0) { // salary < minimum_day * days_in_period
             return BigDecimal.ZERO;
-        }else if (salary.compareTo(MPFCalculatorConstants.G_INT_MAX_DAY.multiply(diff)) > 0) { // salary > maximum_day * days_in_period
-            return MPFCalculatorConstants.G_INT_MAX_DAY.multiply(diff).multiply(MPFCalculatorConstants.FLOAT_RATIO);
+        }else if (salary.compareTo(MPFCalculatorConstants.THRESHOLDS.maxRelevantIncome(diff)) > 0) { // salary > maximum_day * days_in_period
+            return MPFCalculatorConstants.THRESHOLDS.maxContribution(diff);
         }
 
         return MPFCalculatorConstants.FLOAT_RATIO.multiply(salary);
     }
 
     public String getDateReport(){
+        ReportEvent event = new ReportEvent();
+        event.begin();
 
         StringBuilder report = new StringBuilder();
 
@@ -254,22 +665,14 @@ public class MPFAmtCalculator {
 
         // Demonstrate contribution date calculations
         report.append("\n=== CONTRIBUTION DATE CALCULATIONS ===\n");
-        for (ContributionPeriod c : cache.getPeriod()) {
+        int boundary = cache.getBoundary();
+        for (int i = 0; i < cache.size(); i++) {
+            ContributionPeriod c = cache.get(i);
 
             long eeDays = logic.getEeContrDateDiff(c.getStartDate(), c.getEndDate());
             long erDays = logic.getErContrDateDiff(c.getStartDate(), c.getEndDate());
 
-            report.append("\nPeriod: " + logic.formatDate(c.getStartDate()) + " to " + logic.formatDate(c.getEndDate()) + "\n");
-            report.append("\nEmployee contribution days: " + eeDays + "\n");
-            report.append("\nEmployer contribution days: " + erDays + "\n");
-        }
-
-        for (ContributionPeriod c : cache.getPeriodMore()) {
-
-            long eeDays = logic.getEeContrDateDiff(c.getStartDate(), c.getEndDate());
-            long erDays = logic.getErContrDateDiff(c.getStartDate(), c.getEndDate());
-
-            report.append("\nMore Period: " + logic.formatDate(c.getStartDate()) + " to " + logic.formatDate(c.getEndDate()) + "\n");
+            report.append("\n" + (i < boundary ? "Period: " : "More Period: ") + logic.formatDate(c.getStartDate()) + " to " + logic.formatDate(c.getEndDate()) + "\n");
             report.append("\nEmployee contribution days: " + eeDays + "\n");
             report.append("\nEmployer contribution days: " + erDays + "\n");
         }
@@ -285,10 +688,25 @@ public class MPFAmtCalculator {
                 .append("\n31st Day of Employment: " + logic.formatDate(logic.getThe31stDOE()) + "\n")
                 .append("\nDeadline of Enrollment: " + logic.formatDate(logic.getDeadlineForEnrol()) + "\n");
 
+        commitReportEvent(event, "date", cache.size());
         return report.toString();
     }
 
     public String getAmtReport(){
-        return results.stream().map(MPFAmtResult::toString).collect(Collectors.joining(", "));
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        String report = results.stream().map(MPFAmtResult::toString).collect(Collectors.joining(", "));
+        commitReportEvent(event, "amount", results.size());
+        return report;
+    }
+
+    private void commitReportEvent(ReportEvent event, String report, int periodCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.report = report;
+            event.frequency = pf.name();
+            event.periodCount = periodCount;
+            event.commit();
+        }
     }
 }
@@ -2,6 +2,7 @@ package org.example.util.logic;
 
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -18,6 +19,11 @@ public class MPFFortNightlyDateCalculation extends MPFPayrollDateCalculatorLogic
         return this;
     }
 
+    @Override
+    public PayrollFrequency getFrequency() {
+        return PayrollFrequency.FORTNIGHTLY;
+    }
+
     @Override
     void validateCustomized(){
         if (fnightStartDate == null) {
@@ -25,6 +31,11 @@ public class MPFFortNightlyDateCalculation extends MPFPayrollDateCalculatorLogic
         }
     }
 
+    @Override
+    void resetCustomized(){
+        fnightStartDate = null;
+    }
+
     public MPFFortNightlyDateCalculation(List<LocalDate> publicHolidays) {
         super(publicHolidays);
     }
@@ -38,6 +49,7 @@ public class MPFFortNightlyDateCalculation extends MPFPayrollDateCalculatorLogic
         List<ContributionPeriod> morePeriods = new ArrayList<>();
         LocalDate currentStart = dateOfEmployment;
         LocalDate adjustedFnightStart;
+        LocalDate alignedStartDate;
         deadlineFor30Exemption = getDeadlineFor30Exemption();
         int periodIndex = 0;
 
@@ -51,63 +63,52 @@ public class MPFFortNightlyDateCalculation extends MPFPayrollDateCalculatorLogic
         }
 
         // Adjust fortnightly start date to be before or equal to adjusted start
-        while (fnightStartDate.isAfter(adjustedFnightStart)) {
-            fnightStartDate = fnightStartDate.minusDays(14);
-        }
-
-        // Handle different scenarios
-        if (
-                fnightStartDate.isAfter(adjustedFnightStart) ||
-                dateUtils.isSameDate(fnightStartDate, adjustedFnightStart)
-        ) {
-            // Simple case: single period
-            periods.add(new ContributionPeriod(adjustedFnightStart, fnightStartDate));
-        } else {
-            // Complex case: multiple fortnightly periods
-            boolean continueLoop = true;
-            LocalDate periodStart = fnightStartDate;
-
-            while (continueLoop) {
-                LocalDate periodEnd = periodStart.plusDays(13);
-
-                // Adjust first period if employment starts after period start
-                if (periodIndex == 0 &&
-                        (
-                                currentStart.isAfter(fnightStartDate) ||
-                                currentStart.equals(fnightStartDate)
-                        )
-                ) {
-                        periodStart = currentStart;
-                }
+        alignedStartDate = getPeriodStart(adjustedFnightStart);
+
+        // the aligned start is never after the adjusted start, so a start on the aligned date is no special case
+        boolean continueLoop = true;
+        LocalDate periodStart = alignedStartDate;
+
+        while (continueLoop) {
+            LocalDate periodEnd = periodStart.plusDays(13);
+
+            // Adjust first period if employment starts after period start
+            if (periodIndex == 0 &&
+                    (
+                            currentStart.isAfter(alignedStartDate) ||
+                            currentStart.equals(alignedStartDate)
+                    )
+            ) {
+                    periodStart = currentStart;
+            }
 
 
-                periods.add(new ContributionPeriod(periodStart, periodEnd));
-                setAge65WithinPeriod(periodStart, periodEnd);
+            periods.add(new ContributionPeriod(periodStart, periodEnd));
+            setAge65WithinPeriod(periodStart, periodEnd);
 
-                periodIndex++;
-                periodStart = periodEnd.plusDays(1);
+            periodIndex++;
+            periodStart = periodEnd.plusDays(1);
 
+            if (
+                    periodEnd.isAfter(deadlineFor30Exemption) ||
+                    periodEnd.equals(deadlineFor30Exemption)
+            ) {
+                // Handle final period if it extends beyond deadline
                 if (
-                        periodEnd.isAfter(deadlineFor30Exemption) ||
-                        periodEnd.equals(deadlineFor30Exemption)
+                        dateUtils.isPubHoliday(deadlineFor30Exemption) &&
+                                dateUtils.isSameDate(periodEnd, deadlineFor30Exemption)
                 ) {
-                    // Handle final period if it extends beyond deadline
-                    if (
-                            dateUtils.isPubHoliday(deadlineFor30Exemption) &&
-                                    dateUtils.isSameDate(periodEnd, deadlineFor30Exemption)
-                    ) {
-                        LocalDate finalPeriodEnd = periodStart.plusDays(13);
-                        periods.add(new ContributionPeriod(periodStart, finalPeriodEnd));
-                    }
-                    continueLoop = false;
+                    LocalDate finalPeriodEnd = periodStart.plusDays(13);
+                    periods.add(new ContributionPeriod(periodStart, finalPeriodEnd));
                 }
+                continueLoop = false;
             }
+        }
 
-            for (int i =0; i < breaker; i++){
-                LocalDate additionalPeriodEnd = periodStart.plusDays(13);
-                morePeriods.add(new ContributionPeriod(periodStart, additionalPeriodEnd));
-                periodStart = additionalPeriodEnd.plusDays(1);
-            }
+        for (int i =0; i < breaker; i++){
+            LocalDate additionalPeriodEnd = periodStart.plusDays(13);
+            morePeriods.add(new ContributionPeriod(periodStart, additionalPeriodEnd));
+            periodStart = additionalPeriodEnd.plusDays(1);
         }
 
         // Set first period start date flag
@@ -116,7 +117,7 @@ public class MPFFortNightlyDateCalculation extends MPFPayrollDateCalculatorLogic
             setThe1stPeriodStartDate(firstPeriod.getStartDate().equals(currentStart));
 
             // Adjust first period start if employment date is different
-            if (currentStart.isAfter(fnightStartDate)) {
+            if (currentStart.isAfter(alignedStartDate)) {
                 periods.set(0, new ContributionPeriod(currentStart, firstPeriod.getEndDate()));
             }
         }
@@ -127,24 +128,26 @@ public class MPFFortNightlyDateCalculation extends MPFPayrollDateCalculatorLogic
         );
     }
 
+    @Override
+    LocalDate calPeriodEnd(LocalDate periodStart) {
+        return periodStart.plusDays(13);
+    }
+
     /**
      * Calculate last contribution period for Fortnightly
      */
     @Override
     public ContributionPeriod calTheLastPeriod(LocalDate lastDOE) {
         // Find the fortnightly period that contains the last DOE
-        LocalDate periodStart = fnightStartDate;
-
-        // Move backward to find the period containing lastDOE
-        while (periodStart.isAfter(lastDOE)) {
-            periodStart = periodStart.minusDays(14);
-        }
-
-        // Move forward to find the correct period
-        while (periodStart.plusDays(13).isBefore(lastDOE)) {
-            periodStart = periodStart.plusDays(14);
-        }
+        return new ContributionPeriod(getPeriodStart(lastDOE), lastDOE);
+    }
 
-        return new ContributionPeriod(periodStart, lastDOE);
+    /**
+     * Get the start of the fortnightly period containing a date, the periods start every 14 days from the
+     * fortnightly start date in both directions.
+     * @param date the date within the period
+     */
+    private LocalDate getPeriodStart(LocalDate date) {
+        return date.minusDays(Math.floorMod(date.toEpochDay() - fnightStartDate.toEpochDay(), 14));
     }
 }
@@ -2,6 +2,7 @@ package org.example.util.logic;
 
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -15,9 +16,17 @@ public class MPFMonDateCalculator extends MPFPayrollDateCalculatorLogic{
         super(publicHolidays);
     }
 
+    @Override
+    public PayrollFrequency getFrequency() {
+        return PayrollFrequency.MONTHLY;
+    }
+
     @Override
     void validateCustomized(){}
 
+    @Override
+    void resetCustomized(){}
+
     /**
      * Calculate contribution periods for Calendar Month payroll frequency
      */
@@ -97,6 +106,11 @@ public class MPFMonDateCalculator extends MPFPayrollDateCalculatorLogic{
         return employmentDate.isAfter(firstOfMonth) ? employmentDate : firstOfMonth;
     }
 
+    @Override
+    LocalDate calPeriodEnd(LocalDate periodStart) {
+        return dateUtils.getLastDateOfMonth(periodStart);
+    }
+
     /**
      * Calculate last contribution period for Calendar Month
      */
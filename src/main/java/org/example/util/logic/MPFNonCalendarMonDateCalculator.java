@@ -2,6 +2,7 @@ package org.example.util.logic;
 
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -12,6 +13,7 @@ import java.util.List;
  */
 public class MPFNonCalendarMonDateCalculator extends MPFPayrollDateCalculatorLogic{
     private int startDay = 0;
+    private final NonCalendarCycleTable cycleTable = NonCalendarCycleTable.getDefault();
 
     public MPFNonCalendarMonDateCalculator(List<LocalDate> publicHolidays) {
         super(publicHolidays);
@@ -22,6 +24,11 @@ public class MPFNonCalendarMonDateCalculator extends MPFPayrollDateCalculatorLog
         return this;
     }
 
+    @Override
+    public PayrollFrequency getFrequency() {
+        return PayrollFrequency.NON_CALENDAR_MONTH;
+    }
+
     @Override
     void validateCustomized(){
         if (startDay <= 0 || startDay > 31) {
@@ -29,6 +36,11 @@ public class MPFNonCalendarMonDateCalculator extends MPFPayrollDateCalculatorLog
         }
     }
 
+    @Override
+    void resetCustomized(){
+        startDay = 0;
+    }
+
     /**
      * Calculate contribution periods for Non-Calendar Month payroll frequency
      */
@@ -56,13 +68,13 @@ public class MPFNonCalendarMonDateCalculator extends MPFPayrollDateCalculatorLog
         }
 
         long totalDaysToDeadline = dateUtils.getDateCount(adjustedStart, getDeadlineFor30Exemption());
-        LocalDate nextCycleStart = dateUtils.getDateAfter(1, getLastCycleDateForNonCal(adjustedStart, startDay + 1));
+        LocalDate nextCycleStart = dateUtils.getDateAfter(1, cycleTable.getPeriodEnd(adjustedStart, startDay));
 
         // Set first period start date flag
         setThe1stPeriodStartDate(adjustedStart.getDayOfMonth() == nextCycleStart.getDayOfMonth());
 
         while (continueLoop) {
-            LocalDate periodEnd = getLastCycleDateForNonCal(adjustedStart, startDay + 1);
+            LocalDate periodEnd = cycleTable.getPeriodEnd(adjustedStart, startDay);
 
             ContributionPeriod period = new ContributionPeriod(adjustedStart, periodEnd);
 
@@ -100,45 +112,13 @@ public class MPFNonCalendarMonDateCalculator extends MPFPayrollDateCalculatorLog
      * Get 18th age period start for non-calendar month
      */
     private LocalDate getThe18thAgePeriodsStartForNonCal(LocalDate age18Date, LocalDate employmentDate, int startDay) {
-        LocalDate candidate = age18Date.getDayOfMonth() < startDay
-                ? LocalDate.of(age18Date.getYear(), age18Date.getMonth().minus(1), startDay)
-                : LocalDate.of(age18Date.getYear(), age18Date.getMonth(), startDay);
+        LocalDate candidate = cycleTable.getPeriodStart(age18Date, startDay);
         return employmentDate.isAfter(candidate) ? employmentDate : candidate;
     }
 
-    /**
-     * Get last cycle date for non-calendar month
-     * @param startDate start date within the month
-     */
-    private LocalDate getLastCycleDateForNonCal(LocalDate startDate, int cycleDay) {
-        if (startDate.getDayOfMonth() == cycleDay - 1) {
-            return startDate;
-        }
-
-        //todo Invalid date 'FEBRUARY 31'
-        // Check if the cycle day exists in current month
-        LocalDate candidateInCurrentMonth = LocalDate.of(startDate.getYear(), startDate.getMonth(), cycleDay);
-        if (!candidateInCurrentMonth.getMonth().equals(startDate.getMonth())) {
-            return dateUtils.getLastDateOfMonth(startDate);
-        }
-
-        // Calculate next month's cycle date
-        LocalDate nextMonth = startDate.getMonth() == java.time.Month.DECEMBER
-                ? LocalDate.of(startDate.getYear() + 1, java.time.Month.JANUARY, 1)
-                : LocalDate.of(startDate.getYear(), startDate.getMonth().plus(1), 1);
-
-        int targetDay = Math.min(cycleDay - 1, nextMonth.lengthOfMonth());
-        LocalDate nextCycleDate = LocalDate.of(nextMonth.getYear(), nextMonth.getMonth(), targetDay);
-
-        // Calculate previous month's cycle date
-        LocalDate prevMonth = nextMonth.getMonth() == java.time.Month.JANUARY
-                ? LocalDate.of(nextMonth.getYear() - 1, java.time.Month.DECEMBER, 1)
-                : LocalDate.of(nextMonth.getYear(), nextMonth.getMonth().minus(1), 1);
-
-        int prevTargetDay = Math.min(cycleDay - 1, prevMonth.lengthOfMonth());
-        LocalDate prevCycleDate = LocalDate.of(prevMonth.getYear(), prevMonth.getMonth(), prevTargetDay);
-
-        return startDate.isBefore(prevCycleDate) ? prevCycleDate : nextCycleDate;
+    @Override
+    LocalDate calPeriodEnd(LocalDate periodStart) {
+        return cycleTable.getPeriodEnd(periodStart, startDay);
     }
 
     /**
@@ -147,17 +127,6 @@ public class MPFNonCalendarMonDateCalculator extends MPFPayrollDateCalculatorLog
      */
     @Override
     public ContributionPeriod calTheLastPeriod(LocalDate lastDOE) {
-        if (lastDOE.getDayOfMonth() == startDay) {
-            return new ContributionPeriod(lastDOE, lastDOE);
-        }
-
-        LocalDate prevMonth = lastDOE.getMonth() == java.time.Month.JANUARY
-                ? LocalDate.of(lastDOE.getYear() - 1, java.time.Month.DECEMBER, 1)
-                : LocalDate.of(lastDOE.getYear(), lastDOE.getMonth().minus(1), 1);
-
-        int adjustedStartDay = Math.min(startDay, prevMonth.lengthOfMonth() + 1);
-        LocalDate periodStart = LocalDate.of(prevMonth.getYear(), prevMonth.getMonth(), adjustedStartDay);
-
-        return new ContributionPeriod(periodStart, lastDOE);
+        return new ContributionPeriod(cycleTable.getPeriodStart(lastDOE, startDay), lastDOE);
     }
-}
\ No newline at end of file
+}
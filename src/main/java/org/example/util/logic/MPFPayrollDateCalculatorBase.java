@@ -79,14 +79,11 @@ abstract class MPFPayrollDateCalculatorBase implements MPFPayrollDateCalculatorE
     }
     
     /**
-     * Get the 65th birthday date
+     * Get the 65th birthday date, independent of the date of employment.
+     * A birthday on 29 February falls on 28 February when the 65th year is not a leap year.
      */
     public LocalDate getThe65thAgeDate() {
-        int eeAge = dateUtils.getAge(dateOfBirth, dateOfEmployment);
-        int yearDiff = eeAge - 65;
-        int targetYear = dateOfEmployment.getYear() - yearDiff;
-        
-        return LocalDate.of(targetYear, dateOfBirth.getMonth(), dateOfBirth.getDayOfMonth());
+        return dateOfBirth.plusYears(65);
     }
 
     /**
@@ -2,13 +2,18 @@ package org.example.util.logic;
 
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 import org.example.util.intf.ContributionPeriodMiddleware;
 import org.example.util.intf.MPFPayrollDateCalLogic;
 import org.example.util.intf.MPFPayrollLogger;
+import org.example.util.jfr.CalculateEvent;
+import org.example.util.jmx.CalculationMetrics;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
+import java.util.function.Supplier;
 
 /***
  * common calculation logic and perform as a proxy class
@@ -24,12 +29,48 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
     // Middleware registry for processing contribution periods
     protected final MiddlewareRegistry middlewareRegistry;
 
+    // the middlewares after initializeMiddlewares(), reset() restores them if they are changed
+    private List<ContributionPeriodMiddleware> defaultMiddlewares;
+
+    // the 65th birthday of age65DateOfBirth as epoch day, see getThe65thAgeEpochDay()
+    private LocalDate age65DateOfBirth;
+    private long age65EpochDay;
+
     public MPFPayrollDateCalculatorLogic(List<LocalDate> publicHolidays) {
         super(publicHolidays);
         this.middlewareRegistry = new MiddlewareRegistry();
         initializeMiddlewares();
+        this.defaultMiddlewares = List.copyOf(middlewareRegistry.getMiddlewares());
+    }
+
+    /**
+     * Clear the configuration so the calculator can be configured again for another employee,
+     * the holidays and the default middlewares are kept. Used by CalculatorPool.
+     *
+     * @return this instance for method chaining
+     */
+    public MPFPayrollDateCalculatorLogic reset() {
+        dateOfEmployment = null;
+        dateOfBirth = null;
+        deadlineForEnrol = null;
+        deadlineFor30Exemption = null;
+        endOfEmployment = null;
+        isThe1stPeriodStartDate = false;
+        age65Within1stPeriod = false;
+        morePeriod = OptionalLong.empty();
+        if (!middlewareRegistry.getMiddlewares().equals(defaultMiddlewares)) {
+            resetMiddlewares();
+            defaultMiddlewares = List.copyOf(middlewareRegistry.getMiddlewares());
+        }
+        resetCustomized();
+        return this;
     }
 
+    /**
+     * Clear the settings of the payroll frequency, see reset()
+     */
+    abstract void resetCustomized();
+
     public MPFPayrollDateCalculatorLogic setMorePeriod(OptionalLong morePeriod) {
         if (morePeriod.isPresent() &&
                 morePeriod.getAsLong() > 0 &&
@@ -72,16 +113,72 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
     }
 
     public ContributionPeriodMore calculate() throws Exception {
+        CalculateEvent event = new CalculateEvent();
+        event.begin();
         validate();
-        return applyMiddleware(
+        ContributionPeriodMore result = applyMiddleware(
                 calDate()
         );
+        event.end();
+        if (event.shouldCommit()) {
+            event.frequency = getFrequency().name();
+            event.periodCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Apply the end of employment to a schedule that has been calculated already.
+     * Only the period rectification is performed, the periods are not regenerated and the
+     * given schedule is left untouched so it can stay in a cache. The end of employment configured on the
+     * calculator is not changed either.
+     *
+     * @param calculated the schedule returned by calculate()
+     * @param endOfEmployment the end of employment date
+     * @return the rectified schedule
+     */
+    public ContributionPeriodMore applyEndOfEmployment(ContributionPeriodMore calculated, LocalDate endOfEmployment) {
+        ContributionPeriodMore copy = new ContributionPeriodMore(
+                new ArrayList<>(calculated.getPeriod()),
+                new ArrayList<>(calculated.getPeriodMore())
+        );
+        // the configured end of employment is not changed, later calculate() calls still use it
+        return createPeriodRectificationMiddleware(() -> endOfEmployment).process(copy);
     }
 
     abstract ContributionPeriodMore calDate();
 
+    /**
+     * Get the payroll frequency this calculator calculates.
+     */
+    public abstract PayrollFrequency getFrequency();
+
     abstract ContributionPeriod calTheLastPeriod(LocalDate lastDOE);
 
+    /**
+     * Get the end of the regular period which starts at the given date, used to continue a schedule
+     * after the periods of calDate().
+     * @param periodStart start date of the period, the day after the end of the previous period
+     */
+    abstract LocalDate calPeriodEnd(LocalDate periodStart);
+
+    /**
+     * Get the last date of a career-long projection, the 65th birthday or the end of employment if earlier.
+     */
+    public LocalDate getProjectionEnd() {
+        return getProjectionEnd(endOfEmployment);
+    }
+
+    /**
+     * Get the last date of a career-long projection for another end of employment.
+     * @param endOfEmployment the end of employment, null if the employee is still active
+     */
+    public LocalDate getProjectionEnd(LocalDate endOfEmployment) {
+        LocalDate age65Date = getThe65thAgeDate();
+        return endOfEmployment != null && endOfEmployment.isBefore(age65Date) ? endOfEmployment : age65Date;
+    }
+
     // ==================== middleware =================================
 
     /**
@@ -94,17 +191,27 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
 
     /**
      * Create the period rectification middleware.
+     * The end of employment is read when the middleware runs, so later setter calls are honoured.
      * Can be overridden by subclasses for custom rectification logic.
      */
     protected ContributionPeriodMiddleware createPeriodRectificationMiddleware() {
-        return new PeriodRectificationMiddleware(endOfEmployment, this::calTheLastPeriod);
+        return createPeriodRectificationMiddleware(this::getEndOfEmployment);
+    }
+
+    /**
+     * Create the period rectification middleware for the end of employment of a source.
+     * Override this one for custom rectification logic, it is also used by applyEndOfEmployment().
+     * @param endOfEmploymentSource supplier of the end of employment date
+     */
+    protected ContributionPeriodMiddleware createPeriodRectificationMiddleware(Supplier<LocalDate> endOfEmploymentSource) {
+        return new PeriodRectificationMiddleware(endOfEmploymentSource, this::calTheLastPeriod);
     }
 
     /**
      * Apply all registered middlewares to the contribution period.
      */
     private ContributionPeriodMore applyMiddleware(ContributionPeriodMore c) {
-        return middlewareRegistry.createPipeline().apply(c);
+        return middlewareRegistry.createPipeline(getFrequency()).apply(c);
     }
 
     /**
@@ -152,8 +259,13 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
     }
 
     protected void validate() throws Exception {
-        valDateOfBirth();
-        validateCustomized();
+        try {
+            valDateOfBirth();
+            validateCustomized();
+        } catch (Exception e) {
+            CalculationMetrics.getInstance().recordValidationFailure();
+            throw e;
+        }
     }
 
     abstract void validateCustomized();
@@ -162,16 +274,23 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
      * Calculate Employee Contribution Date Difference
      */
     public long getEeContrDateDiff(LocalDate startDate, LocalDate endDate) {
-        long startDateNum = dateUtils.getDateDiff(LocalDate.EPOCH, startDate) + 1;
-        long endDateNum = dateUtils.getDateDiff(LocalDate.EPOCH, endDate) + 1;
-        long firstContrDateNum = dateUtils.getDateDiff(LocalDate.EPOCH, getEeContCommenceDate(startDate, endDate)) + 1;
+        return getEeContrDateDiff(startDate.toEpochDay(), endDate.toEpochDay());
+    }
 
-        LocalDate age65Date = getThe65thAgeDate();
+    /**
+     * Calculate Employee Contribution Date Difference on epoch days, the 65th birthday is cached so no
+     * LocalDate is created per period
+     */
+    public long getEeContrDateDiff(long startEpochDay, long endEpochDay) {
+        long startDateNum = Math.abs(startEpochDay) + 1;
+        long endDateNum = Math.abs(endEpochDay) + 1;
+        long firstContrDateNum = Math.abs(getEeContCommenceEpochDay(startEpochDay)) + 1;
+
+        long age65Day = getThe65thAgeEpochDay();
 
         // Check age 65 conditions
-        if (endDate.isAfter(age65Date) ||
-                (startDate.isBefore(age65Date) || startDate.equals(age65Date)) &&
-                        (age65Date.isBefore(endDate) || age65Date.equals(endDate))) {
+        if (endEpochDay > age65Day ||
+                startEpochDay <= age65Day && age65Day <= endEpochDay) {
             return 0;
         }
 
@@ -193,16 +312,23 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
      * Calculate Employer Contribution Date Difference
      */
     public long getErContrDateDiff(LocalDate startDate, LocalDate endDate) {
-        long startDateNum = dateUtils.getDateDiff(LocalDate.EPOCH, startDate) + 1;
-        long endDateNum = dateUtils.getDateDiff(LocalDate.EPOCH, endDate) + 1;
-        long firstContrDateNum = dateUtils.getDateDiff(LocalDate.EPOCH, getErContCommenceDate(startDate, endDate)) + 1;
+        return getErContrDateDiff(startDate.toEpochDay(), endDate.toEpochDay());
+    }
 
-        LocalDate age65Date = getThe65thAgeDate();
+    /**
+     * Calculate Employer Contribution Date Difference on epoch days, the 65th birthday is cached so no
+     * LocalDate is created per period
+     */
+    public long getErContrDateDiff(long startEpochDay, long endEpochDay) {
+        long startDateNum = Math.abs(startEpochDay) + 1;
+        long endDateNum = Math.abs(endEpochDay) + 1;
+        long firstContrDateNum = Math.abs(getErContCommenceEpochDay(startEpochDay)) + 1;
+
+        long age65Day = getThe65thAgeEpochDay();
 
         // Check age 65 conditions
-        if (endDate.isAfter(age65Date) ||
-                (startDate.isBefore(age65Date) || startDate.equals(age65Date)) &&
-                        (age65Date.isBefore(endDate) || age65Date.equals(endDate))) {
+        if (endEpochDay > age65Day ||
+                startEpochDay <= age65Day && age65Day <= endEpochDay) {
             return 0;
         }
 
@@ -214,20 +340,31 @@ public abstract class MPFPayrollDateCalculatorLogic extends MPFPayrollDateCalcul
     }
 
     /**
-     * Get Employee Contribution Commencement Date
+     * Get the 65th birthday as epoch day, calculated again only when the date of birth changes.
+     */
+    private long getThe65thAgeEpochDay() {
+        if (dateOfBirth != age65DateOfBirth) {
+            age65EpochDay = getThe65thAgeDate().toEpochDay();
+            age65DateOfBirth = dateOfBirth;
+        }
+        return age65EpochDay;
+    }
+
+    /**
+     * Get Employee Contribution Commencement Date as epoch day
      */
-    private LocalDate getEeContCommenceDate(LocalDate startDate, LocalDate endDate) {
+    private long getEeContCommenceEpochDay(long startEpochDay) {
         // This would implement the logic to determine when EE contributions commence
         // For now, return the latter of employment date or period start
-        return dateOfEmployment.isAfter(startDate) ? dateOfEmployment : startDate;
+        return Math.max(dateOfEmployment.toEpochDay(), startEpochDay);
     }
 
     /**
-     * Get Employer Contribution Commencement Date
+     * Get Employer Contribution Commencement Date as epoch day
      */
-    private LocalDate getErContCommenceDate(LocalDate startDate, LocalDate endDate) {
+    private long getErContCommenceEpochDay(long startEpochDay) {
         // This would implement the logic to determine when ER contributions commence
         // For now, return the latter of employment date or period start
-        return dateOfEmployment.isAfter(startDate) ? dateOfEmployment : startDate;
+        return Math.max(dateOfEmployment.toEpochDay(), startEpochDay);
     }
 }
@@ -2,6 +2,7 @@ package org.example.util.logic;
 
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -15,9 +16,17 @@ public class MPFSemiMonDateCalculator extends MPFPayrollDateCalculatorLogic{
         super(publicHolidays);
     }
 
+    @Override
+    public PayrollFrequency getFrequency() {
+        return PayrollFrequency.SEMI_MONTHLY;
+    }
+
     @Override
     void validateCustomized(){}
 
+    @Override
+    void resetCustomized(){}
+
     /**
      * Calculate contribution periods for Semi-Monthly payroll frequency
      */
@@ -101,6 +110,11 @@ public class MPFSemiMonDateCalculator extends MPFPayrollDateCalculatorLogic{
                 : dateUtils.getLastDateOfMonth(startDate);
     }
 
+    @Override
+    LocalDate calPeriodEnd(LocalDate periodStart) {
+        return getCycleEndForSemiMonth(periodStart);
+    }
+
     /**
      * Calculate last contribution period for Semi-Monthly
      * @param lastDOE the last date of employment in the month of termination of employment
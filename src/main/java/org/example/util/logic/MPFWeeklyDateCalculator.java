@@ -2,6 +2,7 @@ package org.example.util.logic;
 
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -23,6 +24,11 @@ public class MPFWeeklyDateCalculator extends MPFPayrollDateCalculatorLogic {
         return this;
     }
 
+    @Override
+    public PayrollFrequency getFrequency() {
+        return PayrollFrequency.WEEKLY;
+    }
+
     @Override
     void validateCustomized() {
         if (cycle == null) {
@@ -30,6 +36,11 @@ public class MPFWeeklyDateCalculator extends MPFPayrollDateCalculatorLogic {
         }
     }
 
+    @Override
+    void resetCustomized() {
+        cycle = null;
+    }
+
     /**
      * Calculate contribution periods for Weekly payroll frequency
      */
@@ -56,6 +67,7 @@ public class MPFWeeklyDateCalculator extends MPFPayrollDateCalculatorLogic {
         }
 
         long totalDaysToDeadline = dateUtils.getDateCount(adjustedStart, getDeadlineFor30Exemption());
+        long deadlineDay = getDeadlineFor30Exemption().toEpochDay();
 
         // Set first period start date flag
         // Check if start date aligns with the weekly cycle (cycle.getValue() + 1 because JS uses 0-6, Java uses 1-7)
@@ -63,22 +75,23 @@ public class MPFWeeklyDateCalculator extends MPFPayrollDateCalculatorLogic {
         if (expectedDayOfWeek == 0) expectedDayOfWeek = 7; // Sunday
         setThe1stPeriodStartDate(adjustedStart.getDayOfWeek().getValue() == expectedDayOfWeek);
 
+        long startDay = adjustedStart.toEpochDay();
         while (continueLoop) {
-            LocalDate periodEnd = dateUtils.getCommingDateByDay(adjustedStart, cycle);
+            long endDay = getPeriodEndEpochDay(startDay);
+            LocalDate periodStart = LocalDate.ofEpochDay(startDay);
+            LocalDate periodEnd = LocalDate.ofEpochDay(endDay);
 
-            ContributionPeriod period = new ContributionPeriod(adjustedStart, periodEnd);
+            ContributionPeriod period = new ContributionPeriod(periodStart, periodEnd);
 
             // Check age 65 within this period
-            setAge65WithinPeriod(adjustedStart, periodEnd);
-
-            totalDays += dateUtils.getDateCount(adjustedStart, periodEnd);
+            setAge65WithinPeriod(periodStart, periodEnd);
 
-            adjustedStart = dateUtils.getDateAfter(1, periodEnd);
+            totalDays += endDay - startDay + 1;
 
             // record the extract periods data
             if (morePeriodIndex < breaker &&
                     totalDays >= totalDaysToDeadline &&
-                    !dateUtils.isBetween(getDeadlineFor30Exemption(), period.getStartDate(), period.getEndDate())
+                    (deadlineDay < startDay || deadlineDay > endDay) // the deadline is not within the period
             ) {
                 morePeriods.add(period); // employee non-pay period
                 morePeriodIndex++;
@@ -86,6 +99,8 @@ public class MPFWeeklyDateCalculator extends MPFPayrollDateCalculatorLogic {
                 periods.add(period); // employee pay period
             }
 
+            startDay = endDay + 1;
+
             // stop iteration
             if (morePeriodIndex >= breaker && totalDays >= totalDaysToDeadline) {
                 continueLoop = false;
@@ -99,24 +114,34 @@ public class MPFWeeklyDateCalculator extends MPFPayrollDateCalculatorLogic {
      * Get 18th age period start for weekly
      */
     private LocalDate getThe18thAgePeriodsStartForWeekly(LocalDate age18Date, LocalDate employmentDate, DayOfWeek weeklyCycle) {
-        LocalDate candidate = dateUtils.getCommingDateByDay(age18Date.minusDays(7), weeklyCycle);
+        LocalDate candidate = LocalDate.ofEpochDay(getPeriodEndEpochDay(age18Date.toEpochDay() - 7));
         return employmentDate.isAfter(candidate) ? employmentDate : candidate;
     }
 
+    @Override
+    LocalDate calPeriodEnd(LocalDate periodStart) {
+        return LocalDate.ofEpochDay(getPeriodEndEpochDay(periodStart.toEpochDay()));
+    }
+
+    /**
+     * Get the end of the weekly period starting at an epoch day, the first day on or after it which is the cycle day.
+     * Epoch day 0 (1970-01-01) is a Thursday, day of week value 4.
+     * @param startEpochDay start of the period
+     */
+    private long getPeriodEndEpochDay(long startEpochDay) {
+        return startEpochDay + Math.floorMod(cycle.getValue() - 4 - startEpochDay, 7);
+    }
+
     /**
      * Calculate last contribution period for Weekly
      */
     @Override
     public ContributionPeriod calTheLastPeriod(LocalDate lastDOE) {
-        // Find the weekly period that contains the last DOE
-        LocalDate periodStart = lastDOE;
-
-        // Move backward to find the start of the week containing lastDOE
-        while (periodStart.getDayOfWeek().getValue() != ((cycle.getValue() + 1) % 7)) {
-            periodStart = periodStart.minusDays(1);
-        }
+        // Find the weekly period that contains the last DOE, it starts the day after the cycle day
+        long lastDay = lastDOE.toEpochDay();
+        long periodStart = lastDay - Math.floorMod(lastDay - getPeriodEndEpochDay(lastDay) - 1, 7);
 
-        return new ContributionPeriod(periodStart, lastDOE);
+        return new ContributionPeriod(LocalDate.ofEpochDay(periodStart), lastDOE);
     }
 
 }
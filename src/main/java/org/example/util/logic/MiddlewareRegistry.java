@@ -1,7 +1,9 @@
 package org.example.util.logic;
 
 import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
 import org.example.util.intf.ContributionPeriodMiddleware;
+import org.example.util.jfr.MiddlewareEvent;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -82,6 +84,17 @@ public class MiddlewareRegistry {
      * @return a function that applies all registered middlewares in sequence
      */
     public Function<ContributionPeriodMore, ContributionPeriodMore> createPipeline() {
+        return createPipeline(null);
+    }
+
+    /**
+     * Create a composed middleware function from all registered middlewares, the JFR event of each stage
+     * carries the payroll frequency of the schedule.
+     *
+     * @param frequency the payroll frequency of the schedules, can be null
+     * @return a function that applies all registered middlewares in sequence
+     */
+    public Function<ContributionPeriodMore, ContributionPeriodMore> createPipeline(PayrollFrequency frequency) {
         if (middlewares.isEmpty()) {
             return Function.identity();
         }
@@ -89,7 +102,16 @@ public class MiddlewareRegistry {
         return contributionPeriod -> {
             ContributionPeriodMore result = contributionPeriod;
             for (ContributionPeriodMiddleware middleware : middlewares) {
+                MiddlewareEvent event = new MiddlewareEvent();
+                event.begin();
                 result = middleware.process(result);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.frequency = frequency != null ? frequency.name() : null;
+                    event.stage = middleware.getClass().getSimpleName();
+                    event.periodCount = result.size();
+                    event.commit();
+                }
             }
             return result;
         };
@@ -0,0 +1,108 @@
+package org.example.util.logic;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Precomputed cycle end dates of the non-calendar month payroll, indexed by year, month and start day.
+ * The cycle of a month ends on the start day, or on the last day of the month if the month is shorter
+ * (e.g. 28 or 29 February for start days 29 to 31), and the next period starts on the day after.
+ * Years out of the table range are calculated on the fly.
+ */
+public final class NonCalendarCycleTable {
+
+    private static final int MAX_START_DAY = 31;
+
+    private final int fromYear;
+    private final int toYear;
+    // epoch day of the cycle end, [(year - fromYear) * 12 + month - 1][startDay - 1]
+    private final int[] cycleEnds;
+
+    /**
+     * @param fromYear the first year in the table
+     * @param toYear the last year in the table
+     */
+    public NonCalendarCycleTable(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("fromYear is after toYear");
+        }
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        this.cycleEnds = new int[(toYear - fromYear + 1) * 12 * MAX_START_DAY];
+        int i = 0;
+        for (int year = fromYear; year <= toYear; year++) {
+            for (int month = 1; month <= 12; month++) {
+                for (int startDay = 1; startDay <= MAX_START_DAY; startDay++) {
+                    cycleEnds[i++] = Math.toIntExact(calCycleEnd(year, month, startDay));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the shared table, the year range is set by the system properties mpf.nonCalendarTable.fromYear
+     * and mpf.nonCalendarTable.toYear, 1950 to 2150 by default.
+     */
+    public static NonCalendarCycleTable getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Get the cycle end in a month.
+     * @param year the year
+     * @param month the month, 1 to 12
+     * @param startDay the non-calendar month start day, 1 to 31
+     * @return epoch day of the cycle end
+     */
+    public long getCycleEnd(int year, int month, int startDay) {
+        if (startDay < 1 || startDay > MAX_START_DAY) {
+            throw new IllegalArgumentException("startDay must be between 1 and 31");
+        }
+        if (year < fromYear || year > toYear) {
+            return calCycleEnd(year, month, startDay);
+        }
+        return cycleEnds[((year - fromYear) * 12 + month - 1) * MAX_START_DAY + startDay - 1];
+    }
+
+    /**
+     * Get the end of the period which starts at a date, the first cycle end on or after the date.
+     * @param periodStart start date of the period
+     * @param startDay the non-calendar month start day
+     */
+    public LocalDate getPeriodEnd(LocalDate periodStart, int startDay) {
+        long end = getCycleEnd(periodStart.getYear(), periodStart.getMonthValue(), startDay);
+        if (periodStart.toEpochDay() > end) {
+            end = periodStart.getMonthValue() == 12
+                    ? getCycleEnd(periodStart.getYear() + 1, 1, startDay)
+                    : getCycleEnd(periodStart.getYear(), periodStart.getMonthValue() + 1, startDay);
+        }
+        return LocalDate.ofEpochDay(end);
+    }
+
+    /**
+     * Get the start of the period containing a date, the day after the last cycle end before the date.
+     * @param date the date within the period
+     * @param startDay the non-calendar month start day
+     */
+    public LocalDate getPeriodStart(LocalDate date, int startDay) {
+        long end = getCycleEnd(date.getYear(), date.getMonthValue(), startDay);
+        if (date.toEpochDay() <= end) {
+            end = date.getMonthValue() == 1
+                    ? getCycleEnd(date.getYear() - 1, 12, startDay)
+                    : getCycleEnd(date.getYear(), date.getMonthValue() - 1, startDay);
+        }
+        return LocalDate.ofEpochDay(end + 1);
+    }
+
+    private static long calCycleEnd(int year, int month, int startDay) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return yearMonth.atDay(Math.min(startDay, yearMonth.lengthOfMonth())).toEpochDay();
+    }
+
+    private static final class DefaultHolder {
+        private static final NonCalendarCycleTable INSTANCE = new NonCalendarCycleTable(
+                Integer.getInteger("mpf.nonCalendarTable.fromYear", 1950),
+                Integer.getInteger("mpf.nonCalendarTable.toYear", 2150)
+        );
+    }
+}
@@ -6,6 +6,7 @@ import org.example.util.intf.ContributionPeriodMiddleware;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Middleware implementation for rectifying contribution periods based on end of employment date.
@@ -14,7 +15,7 @@ import java.util.List;
  */
 public class PeriodRectificationMiddleware implements ContributionPeriodMiddleware {
     
-    private final LocalDate endOfEmployment;
+    private final Supplier<LocalDate> endOfEmploymentSource;
     private final PeriodRectificationStrategy rectificationStrategy;
     
     /**
@@ -24,12 +25,24 @@ public class PeriodRectificationMiddleware implements ContributionPeriodMiddlewa
      * @param rectificationStrategy the strategy to use for calculating the last period
      */
     public PeriodRectificationMiddleware(LocalDate endOfEmployment, PeriodRectificationStrategy rectificationStrategy) {
-        this.endOfEmployment = endOfEmployment;
+        this(() -> endOfEmployment, rectificationStrategy);
+    }
+
+    /**
+     * Constructor for the rectification middleware which resolves the end of employment on every process call,
+     * so the date set on the calculator after the middleware is registered is still honoured.
+     *
+     * @param endOfEmploymentSource supplier of the end of employment date, the supplied value can be null
+     * @param rectificationStrategy the strategy to use for calculating the last period
+     */
+    public PeriodRectificationMiddleware(Supplier<LocalDate> endOfEmploymentSource, PeriodRectificationStrategy rectificationStrategy) {
+        this.endOfEmploymentSource = endOfEmploymentSource;
         this.rectificationStrategy = rectificationStrategy;
     }
     
     @Override
     public ContributionPeriodMore process(ContributionPeriodMore contributionPeriod) {
+        LocalDate endOfEmployment = endOfEmploymentSource.get();
         if (endOfEmployment == null) {
             return contributionPeriod; // No rectification needed
         }
@@ -39,7 +52,7 @@ public class PeriodRectificationMiddleware implements ContributionPeriodMiddlewa
             return contributionPeriod;
         }
         
-        List<ContributionPeriod> rectifiedPeriods = rectifyPeriods(morePeriods, morePeriods.size() - 1);
+        List<ContributionPeriod> rectifiedPeriods = rectifyPeriods(morePeriods, morePeriods.size() - 1, endOfEmployment);
         contributionPeriod.setPeriodMore(rectifiedPeriods);
         
         return contributionPeriod;
@@ -50,14 +63,15 @@ public class PeriodRectificationMiddleware implements ContributionPeriodMiddlewa
      * 
      * @param periods the list of contribution periods
      * @param index the current index being processed (recursive iteration)
+     * @param endOfEmployment the end of employment date
      * @return the rectified list of periods
      */
-    private List<ContributionPeriod> rectifyPeriods(List<ContributionPeriod> periods, int index) {
+    private List<ContributionPeriod> rectifyPeriods(List<ContributionPeriod> periods, int index, LocalDate endOfEmployment) {
         if (index < 0) {
             return periods;
         }
         //todo index >= periods.size() => false  ||  shouldTruncateAtIndex(period.getStartDate() < endOfEmployment < period.getEndDate())  need =
-        if (index >= periods.size() || shouldTruncateAtIndex(periods, index)) {
+        if (index >= periods.size() || shouldTruncateAtIndex(periods, index, endOfEmployment)) {
             if (index >= 0) {
                 periods = periods.subList(0, index); // Cut periods after end of employment
             }
@@ -68,7 +82,7 @@ public class PeriodRectificationMiddleware implements ContributionPeriodMiddlewa
             return periods;
         }
         
-        return rectifyPeriods(periods, index - 1);
+        return rectifyPeriods(periods, index - 1, endOfEmployment);
     }
     
     /**
@@ -76,9 +90,10 @@ public class PeriodRectificationMiddleware implements ContributionPeriodMiddlewa
      * 
      * @param periods the list of periods
      * @param index the index to check
+     * @param endOfEmployment the end of employment date
      * @return true if the period should be truncated
      */
-    private boolean shouldTruncateAtIndex(List<ContributionPeriod> periods, int index) {
+    private boolean shouldTruncateAtIndex(List<ContributionPeriod> periods, int index, LocalDate endOfEmployment) {
         ContributionPeriod period = periods.get(index);
         return period.getStartDate().isBefore(endOfEmployment) && 
                period.getEndDate().isAfter(endOfEmployment);
@@ -0,0 +1,222 @@
+package org.example.util.logic;
+
+import org.example.dto.MPFAmtResult;
+import org.example.dto.RemittanceTotal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Streaming aggregator of the per contribution period totals of one employer's remittance statement.
+ * The results of each employee are folded in as soon as they are calculated, the totals are kept in a
+ * primitive open-addressing map keyed by the epoch day of the period start.
+ * An instance is not thread-safe, use one aggregator per thread and merge them when the threads finish.
+ */
+public class RemittanceAggregator {
+
+    // amounts are kept as fixed-point long, 4 decimal places covers salary (2 dp) * FLOAT_RATIO (2 dp)
+    private static final int SCALE = 4;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private long[] eeAmounts;
+    private long[] erAmounts;
+    private long[] relevantIncomes;
+    private int[] headcounts;
+    private int size;
+
+    public RemittanceAggregator() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Fold one employee's results into the totals.
+     * Both lists are the results of the same schedule, so they are aligned by index.
+     *
+     * @param eeResults employee amounts
+     * @param erResults employer amounts
+     * @return this aggregator for method chaining
+     */
+    public RemittanceAggregator add(List<MPFAmtResult> eeResults, List<MPFAmtResult> erResults) {
+        if (eeResults.size() != erResults.size()) {
+            throw new IllegalArgumentException("employee and employer results have different size");
+        }
+        for (int i = 0; i < erResults.size(); i++) {
+            MPFAmtResult ee = eeResults.get(i);
+            MPFAmtResult er = erResults.get(i);
+            if (!ee.getContributionPeriod().equals(er.getContributionPeriod())) {
+                throw new IllegalArgumentException("employee and employer results are not from the same schedule");
+            }
+            add(
+                    er.getContributionPeriod().getStartDate().toEpochDay(),
+                    toFixed(ee.getAmount()),
+                    toFixed(er.getAmount()),
+                    toFixed(er.getSalary()),
+                    1
+            );
+        }
+        return this;
+    }
+
+    /**
+     * Fold a single contribution period of one employee into the totals,
+     * e.g. a row read back from a batch output file.
+     *
+     * @param periodStart start of the contribution period
+     * @param eeAmount employee amount
+     * @param erAmount employer amount
+     * @param relevantIncome the salary of the period
+     * @return this aggregator for method chaining
+     */
+    public RemittanceAggregator add(LocalDate periodStart, BigDecimal eeAmount, BigDecimal erAmount, BigDecimal relevantIncome) {
+        add(periodStart.toEpochDay(), toFixed(eeAmount), toFixed(erAmount), toFixed(relevantIncome), 1);
+        return this;
+    }
+
+    /**
+     * Merge the totals of another aggregator, e.g. the one of another worker thread, into this one.
+     *
+     * @param other the aggregator to merge
+     * @return this aggregator for method chaining
+     */
+    public RemittanceAggregator merge(RemittanceAggregator other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.eeAmounts[i], other.erAmounts[i], other.relevantIncomes[i], other.headcounts[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of contribution periods aggregated.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the totals ordered by period start.
+     */
+    public List<RemittanceTotal> getTotals() {
+        List<RemittanceTotal> totals = new ArrayList<>(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                totals.add(new RemittanceTotal(
+                        LocalDate.ofEpochDay(keys[i]),
+                        fromFixed(eeAmounts[i]),
+                        fromFixed(erAmounts[i]),
+                        fromFixed(relevantIncomes[i]),
+                        headcounts[i]
+                ));
+            }
+        }
+        totals.sort(Comparator.comparing(RemittanceTotal::getPeriodStart));
+        return totals;
+    }
+
+    /**
+     * Write the totals, e.g. to a checkpoint, the fixed-point values are written as they are.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                out.writeLong(keys[i]);
+                out.writeLong(eeAmounts[i]);
+                out.writeLong(erAmounts[i]);
+                out.writeLong(relevantIncomes[i]);
+                out.writeInt(headcounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Read totals written by writeTo().
+     */
+    public static RemittanceAggregator readFrom(DataInput in) throws IOException {
+        RemittanceAggregator aggregator = new RemittanceAggregator();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            aggregator.add(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readInt());
+        }
+        return aggregator;
+    }
+
+    private void add(long key, long ee, long er, long income, int headcount) {
+        int slot = slotOf(key, keys);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                rehash();
+                slot = slotOf(key, keys);
+            }
+        }
+        eeAmounts[slot] += ee;
+        erAmounts[slot] += er;
+        relevantIncomes[slot] += income;
+        headcounts[slot] += headcount;
+    }
+
+    /**
+     * Linear probing, returns the slot of the key or the empty slot it should go to.
+     */
+    private static int slotOf(long key, long[] table) {
+        int mask = table.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldEe = eeAmounts;
+        long[] oldEr = erAmounts;
+        long[] oldIncomes = relevantIncomes;
+        int[] oldHeadcounts = headcounts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                eeAmounts[slot] = oldEe[i];
+                erAmounts[slot] = oldEr[i];
+                relevantIncomes[slot] = oldIncomes[i];
+                headcounts[slot] = oldHeadcounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        eeAmounts = new long[capacity];
+        erAmounts = new long[capacity];
+        relevantIncomes = new long[capacity];
+        headcounts = new int[capacity];
+    }
+
+    private static long toFixed(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromFixed(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+}
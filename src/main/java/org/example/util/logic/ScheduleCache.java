@@ -0,0 +1,289 @@
+package org.example.util.logic;
+
+import org.example.constant.MPFCalculatorConstants;
+import org.example.dto.ContributionPeriod;
+import org.example.dto.ContributionPeriodMore;
+import org.example.enums.PayrollFrequency;
+import org.example.util.jmx.CalculationMetrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * In-memory cache of calculated schedules for one holiday calendar, which can be snapshotted to a local file
+ * and reloaded at startup so a restarted batch or service begins warm.
+ * The snapshot records the engine version and the holiday calendar version, a snapshot written by another
+ * engine version or for another calendar is ignored, and so is a corrupted or truncated one: the snapshot ends with
+ * a CRC32 of everything before it, so a flipped bit in a date or key is not loaded as a valid schedule.
+ * When the cache is full the schedule cached first is evicted.
+ */
+public class ScheduleCache {
+
+    private static final Logger logger = Logger.getLogger(ScheduleCache.class.getName());
+
+    private static final int MAGIC = 0x4D504653; // "MPFS"
+    private static final int FORMAT_VERSION = 2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int DEFAULT_MAX_ENTRIES = 1_000_000;
+
+    private final long calendarVersion;
+    private final int maxEntries;
+    private final Map<CalculationKey, ContributionPeriodMore> schedules = new ConcurrentHashMap<>();
+    // keys in the order they are cached, the eviction order
+    private final Queue<CalculationKey> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ScheduleCache(List<LocalDate> holidays) {
+        this(holidays, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param holidays the holiday calendar of every schedule in the cache
+     * @param maxEntries the most schedules kept, the oldest ones are evicted beyond it
+     */
+    public ScheduleCache(List<LocalDate> holidays, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be a positive number");
+        }
+        this.calendarVersion = holidays instanceof HolidayCalendar
+                ? ((HolidayCalendar) holidays).getVersion() // no need to read the whole calendar
+                : calendarVersion(holidays != null ? holidays : List.of());
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get a cached schedule.
+     * @return the schedule, null if it is not cached
+     */
+    public ContributionPeriodMore get(CalculationKey key) {
+        ContributionPeriodMore schedule = schedules.get(key);
+        if (schedule == null) {
+            misses.incrementAndGet();
+            CalculationMetrics.getInstance().recordScheduleCacheMiss();
+        } else {
+            hits.incrementAndGet();
+            CalculationMetrics.getInstance().recordScheduleCacheHit();
+        }
+        return schedule;
+    }
+
+    /**
+     * Cache an unmodifiable copy of a schedule, see ContributionPeriodMore.unmodifiableCopy().
+     */
+    public void put(CalculationKey key, ContributionPeriodMore schedule) {
+        if (key.getCalendarVersion() != calendarVersion) {
+            throw new IllegalArgumentException("the key is calculated with another holiday calendar");
+        }
+        if (schedules.put(key, ContributionPeriodMore.unmodifiableCopy(schedule)) == null) {
+            insertionOrder.add(key);
+        }
+        while (schedules.size() > maxEntries) {
+            CalculationKey eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            if (schedules.remove(eldest) != null) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public int size() {
+        return schedules.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getCalendarVersion() {
+        return calendarVersion;
+    }
+
+    /**
+     * Write a snapshot of the cache. The file is written next to the target and moved in place,
+     * so a crash never leaves a half written snapshot behind.
+     * @param file the snapshot file
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(MPFCalculatorConstants.ENGINE_VERSION);
+            out.writeLong(calendarVersion);
+
+            List<Map.Entry<CalculationKey, ContributionPeriodMore>> entries = new ArrayList<>(schedules.entrySet());
+            out.writeInt(entries.size());
+            for (Map.Entry<CalculationKey, ContributionPeriodMore> entry : entries) {
+                writeKey(out, entry.getKey());
+                writePeriods(out, entry.getValue().getPeriod());
+                writePeriods(out, entry.getValue().getPeriodMore());
+            }
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a snapshot into the cache.
+     * @param file the snapshot file
+     * @return the number of schedules loaded, 0 if the file does not exist, is of another version or is corrupted
+     */
+    public int load(Path file) throws IOException {
+        List<CalculationKey> keys = new ArrayList<>();
+        List<ContributionPeriodMore> loaded = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warning("ignore schedule snapshot " + file + ", unknown format");
+                return 0;
+            }
+            int engineVersion = in.readInt();
+            long snapshotCalendarVersion = in.readLong();
+            if (engineVersion != MPFCalculatorConstants.ENGINE_VERSION || snapshotCalendarVersion != calendarVersion) {
+                logger.info("ignore schedule snapshot " + file + ", engine or holiday calendar changed");
+                return 0;
+            }
+
+            // read the whole snapshot before caching any of it, a corrupted snapshot leaves the cache cold
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                keys.add(readKey(in));
+                loaded.add(new ContributionPeriodMore(readPeriods(in), readPeriods(in)));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                logger.warning("ignore corrupted schedule snapshot " + file + ", checksum mismatch, start cold");
+                return 0;
+            }
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+            logger.log(Level.WARNING, "ignore corrupted schedule snapshot " + file + ", start cold", e);
+            return 0;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            put(keys.get(i), loaded.get(i));
+        }
+        return keys.size();
+    }
+
+    /**
+     * Version of a holiday calendar, the first 64 bits of the SHA-256 digest of the holidays in date order,
+     * so two calendars do not share a version in practice.
+     */
+    public static long calendarVersion(List<LocalDate> holidays) {
+        long[] days = holidays.stream().mapToLong(LocalDate::toEpochDay).sorted().distinct().toArray();
+        ByteBuffer bytes = ByteBuffer.allocate(Long.BYTES * days.length);
+        for (long day : days) {
+            bytes.putLong(day);
+        }
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes.array())).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // every JVM has it
+        }
+    }
+
+    private static void writeKey(DataOutputStream out, CalculationKey key) throws IOException {
+        MPFDateCalculatorConfig cfg = key.toConfig();
+        out.writeUTF(key.getFrequency().name());
+        writeDate(out, cfg.getDateOfBirth());
+        writeDate(out, cfg.getDateOfEmployment());
+        writeDate(out, cfg.getEndOfEmployment());
+        writeDate(out, cfg.getDeadlineForEnrol());
+        out.writeLong(cfg.getMorePeriod().isPresent() ? cfg.getMorePeriod().getAsLong() : 0);
+        out.writeByte(cfg.getWeeklyCycle() == null ? 0 : cfg.getWeeklyCycle().getValue());
+        writeDate(out, cfg.getPryllFnightStartDate());
+        out.writeInt(cfg.getNonCalStartDay() == null ? 0 : cfg.getNonCalStartDay());
+    }
+
+    private CalculationKey readKey(DataInputStream in) throws IOException {
+        PayrollFrequency frequency = PayrollFrequency.valueOf(in.readUTF());
+        MPFDateCalculatorConfig cfg = new MPFDateCalculatorConfig(readDate(in), readDate(in))
+                .setEndOfEmployment(readDate(in))
+                .setDeadlineForEnrol(readDate(in));
+        long morePeriod = in.readLong();
+        if (morePeriod > 0) {
+            cfg.setMorePeriod(OptionalLong.of(morePeriod));
+        }
+        int weeklyCycle = in.readByte();
+        if (weeklyCycle > 0) {
+            cfg.setWeeklyCycle(DayOfWeek.of(weeklyCycle));
+        }
+        cfg.setPryllFnightStartDate(readDate(in));
+        int nonCalStartDay = in.readInt();
+        if (nonCalStartDay > 0) {
+            cfg.setNonCalStartDay(nonCalStartDay);
+        }
+        return new CalculationKey(frequency, calendarVersion, cfg);
+    }
+
+    private static void writePeriods(DataOutputStream out, List<ContributionPeriod> periods) throws IOException {
+        out.writeInt(periods.size());
+        for (ContributionPeriod p : periods) {
+            out.writeLong(p.getStartDate().toEpochDay());
+            out.writeLong(p.getEndDate().toEpochDay());
+        }
+    }
+
+    private static List<ContributionPeriod> readPeriods(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("negative number of periods");
+        }
+        // the size is not trusted for the capacity, a corrupted one must not allocate a huge array
+        List<ContributionPeriod> periods = new ArrayList<>(Math.min(size, 1024));
+        for (int i = 0; i < size; i++) {
+            periods.add(new ContributionPeriod(LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong())));
+        }
+        return periods;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        long day = in.readLong();
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.util.logic;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent calls with the same key, so only the first caller runs the work and every caller
+ * arriving while it runs receives the same result (or the same failure). Once the work is finished the
+ * key is released and the next call runs the work again.
+ *
+ * @param <K> the key type
+ * @param <V> the result type, it is shared between callers so it should be immutable
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the work, or wait for the identical call in flight.
+     *
+     * @param key the key of the call
+     * @param work the work to run
+     * @return the result
+     * @throws Exception the failure of the work
+     */
+    public V execute(K key, Callable<V> work) throws Exception {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return await(leader);
+        }
+
+        try {
+            V result = work.call();
+            flight.complete(result);
+            return result;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } catch (Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Get the number of calls in flight.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) throws Exception {
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.example.util.logic;
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
 import org.example.util.intf.ContributionPeriodMiddleware;
+import org.example.util.jmx.CalculationMetrics;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -49,7 +50,7 @@ public class ValidationMiddleware implements ContributionPeriodMiddleware {
             validatePeriod(period, periodType + " [" + i + "]");
             
             // Validate sequence (no gaps or overlaps)
-            if (i > 0) {
+            if (i > 0 && period != null && periods.get(i - 1) != null) {
                 validateSequence(periods.get(i - 1), period, periodType);
             }
         }
@@ -108,6 +109,7 @@ public class ValidationMiddleware implements ContributionPeriodMiddleware {
      * @param message the error message
      */
     private void handleValidationError(String message) {
+        CalculationMetrics.getInstance().recordValidationFailure();
         if (strictValidation) {
             throw new IllegalStateException(message);
         } else {
@@ -0,0 +1,402 @@
+package service;
+
+import org.example.constant.MPFCalculatorConstants;
+import org.example.dto.ContributionPeriod;
+import org.example.dto.ContributionPeriodMore;
+import org.example.dto.EmployeeResult;
+import org.example.dto.MPFAmtResult;
+import org.example.dto.RosterRecord;
+import org.example.enums.CalUserType;
+import org.example.enums.PayrollFrequency;
+import org.example.service.export.CalService;
+import org.example.util.logic.AmountResultCache;
+import org.example.util.logic.DayBaseKernel;
+import org.example.util.logic.HolidayCalendar;
+import org.example.util.logic.MPFAmtCalculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.reference.MPFPayrollDateCalculatorLogic;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Randomised differential test of the optimised calculation paths against the frozen reference calculators
+ * in service.reference.
+ * The reference engine is a new reference calculator per employee on the plain holiday list with
+ * calculateAmount() of each user type. The optimised engine is CalService on the memory-mapped HolidayCalendar
+ * with the schedule cache, pooled calculators, the result cache and the single pass calculateAmounts(), and
+ * the fixed-point calculateAmountFixed(). Every employee goes through CalService twice, so the cached
+ * paths are compared as well.
+ * The reference is the baseline as it was, each behaviour fixed since is a named Divergence. An employee the
+ * reference diverges on as a Divergence expects is compared with the unoptimised engine instead, a new
+ * MPFAmtCalculator per employee on the plain holiday list.
+ * The employees cover every payroll frequency, birth dates near the 18th and the 65th birthday, hire dates
+ * near holidays and salaries at the thresholds. The first divergent period is reported with the roster line
+ * of the employee, which replays it with RosterBatchRunner.
+ * The seed is fixed so a failure can be replayed, the system properties mpf.differential.seed and
+ * mpf.differential.employees run another seed or more employees.
+ */
+public class DifferentialHarnessTest {
+
+    private static final LocalDate FIRST_HIRE_DATE = LocalDate.of(2019, 1, 1);
+    private static final int HIRE_DAYS = 365 * 10;
+
+    @TempDir
+    Path workDir;
+
+    private final Map<Divergence, Integer> expected = new EnumMap<>(Divergence.class);
+    private Random random;
+    private List<LocalDate> holidays;
+    private List<LocalDate> calendar;
+    private CalService optimised;
+    private int periods;
+
+    @Test
+    public void testOptimisedPathsMatchReference() throws Exception {
+        long seed = Long.getLong("mpf.differential.seed", 20250101L);
+        int count = Integer.getInteger("mpf.differential.employees", 2000);
+        init(seed);
+
+        String divergence = run(count);
+
+        assertNull(divergence, "divergence with seed " + seed);
+        System.out.println("expected divergences: " + expected);
+        assertTrue(periods > count, "too few periods compared: " + periods);
+    }
+
+    /**
+     * @param seed seed of the employees and holidays, the same seed generates the same run
+     */
+    private void init(long seed) throws Exception {
+        this.random = new Random(seed);
+        this.holidays = randomHolidays();
+        Path calendarFile = workDir.resolve("differential-" + seed + ".cal");
+        HolidayCalendar.compile(holidays, calendarFile);
+        this.calendar = HolidayCalendar.open(calendarFile).verify();
+        this.optimised = new CalService(calendar)
+                .setResultCache(new AmountResultCache(1024, 1024 * 100, 10, TimeUnit.MINUTES));
+    }
+
+    /**
+     * Compare random employees until the first divergence.
+     * @param count the number of employees
+     * @return the first divergence, null if the engines agree on every employee
+     */
+    private String run(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            String divergence = compare(randomEmployee(String.format("D%07d", i)));
+            if (divergence != null) {
+                return divergence;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compare the optimised paths with the reference on one employee. When the reference is expected to differ
+     * on the employee, the optimised paths are compared with the unoptimised engine instead and the expected
+     * divergence is counted.
+     * @return the first unexpected divergence, null if the engines agree
+     */
+    private String compare(RosterRecord record) throws Exception {
+        Divergence rule = Divergence.of(record);
+        if (rule != Divergence.WEEKLY_SATURDAY_CYCLE) { // the reference would not return
+            String divergence = compare(record, "reference", this::reference);
+            if (divergence == null || rule == null) {
+                return divergence;
+            }
+        }
+        expected.merge(rule, 1, Integer::sum);
+        return compare(record, "unoptimised", this::unoptimised);
+    }
+
+    private String compare(RosterRecord record, String name, Engine engine) throws Exception {
+        List<List<MPFAmtResult>> reference;
+        try {
+            reference = engine.calculate(record);
+        } catch (Exception e) {
+            // an invalid employee must be rejected by the optimised engine too
+            try {
+                optimised.calculateAmount(record);
+            } catch (Exception expected) {
+                return null;
+            }
+            return "employee " + record.toCsv() + "\n  " + name + " failed with " + e + ", optimised did not";
+        }
+        List<MPFAmtResult> eeReference = reference.get(0);
+        List<MPFAmtResult> erReference = reference.get(1);
+        periods += erReference.size();
+
+        for (String path : new String[]{"calculateAmounts", "calculateAmounts cached"}) {
+            EmployeeResult result;
+            try {
+                result = optimised.calculateAmount(record);
+            } catch (Exception e) {
+                return "employee " + record.toCsv() + "\n  " + path + " failed with " + e + ", " + name + " did not";
+            }
+            String divergence = firstDivergence(eeReference, erReference, result.getEeResults(), result.getErResults());
+            if (divergence != null) {
+                return "employee " + record.toCsv() + "\n  " + path + " against " + name + " " + divergence;
+            }
+        }
+
+        ContributionPeriodMore schedule = optimised.calculateDate(record);
+        try (MPFAmtCalculator calculator = new MPFAmtCalculator(record.getFrequency(), calendar, record.getConfig())) {
+            calculator.useSchedule(schedule);
+            long[] salaryCents = new long[schedule.size()];
+            Arrays.fill(salaryCents, DayBaseKernel.toCents(record.getSalary()));
+            long[] ee = calculator.calculateAmountFixed(CalUserType.EMPLOYEE, salaryCents);
+            long[] er = calculator.calculateAmountFixed(CalUserType.EMPLOYER, salaryCents);
+            List<MPFAmtResult> eeFixed = new ArrayList<>(ee.length);
+            List<MPFAmtResult> erFixed = new ArrayList<>(er.length);
+            for (int i = 0; i < schedule.size(); i++) {
+                eeFixed.add(new MPFAmtResult(schedule.get(i), record.getSalary(), DayBaseKernel.toAmount(ee[i])));
+                erFixed.add(new MPFAmtResult(schedule.get(i), record.getSalary(), DayBaseKernel.toAmount(er[i])));
+            }
+            String divergence = firstDivergence(eeReference, erReference, eeFixed, erFixed);
+            if (divergence != null) {
+                return "employee " + record.toCsv() + "\n  calculateAmountFixed against " + name + " " + divergence;
+            }
+        }
+        return null;
+    }
+
+    private List<List<MPFAmtResult>> reference(RosterRecord record) throws Exception {
+        service.reference.MPFAmtCalculator calculator =
+                new service.reference.MPFAmtCalculator(referenceFrequency(record), holidays, record.getConfig());
+        applyEndOfEmploymentAfterConstruction(calculator);
+        ContributionPeriodMore schedule = calculator.calculateDate();
+        BigDecimal[] salaries = new BigDecimal[schedule.size()];
+        Arrays.fill(salaries, record.getSalary());
+        return List.of(
+                calculator.calculateAmount(CalUserType.EMPLOYEE, salaries),
+                calculator.calculateAmount(CalUserType.EMPLOYER, salaries)
+        );
+    }
+
+    /**
+     * A new calculator per employee on the plain holiday list, without any of the caches and pools.
+     */
+    private List<List<MPFAmtResult>> unoptimised(RosterRecord record) throws Exception {
+        try (MPFAmtCalculator calculator = new MPFAmtCalculator(record.getFrequency(), holidays, record.getConfig())) {
+            ContributionPeriodMore schedule = calculator.calculateDate();
+            BigDecimal[] salaries = new BigDecimal[schedule.size()];
+            Arrays.fill(salaries, record.getSalary());
+            return List.of(
+                    calculator.calculateAmount(CalUserType.EMPLOYEE, salaries),
+                    calculator.calculateAmount(CalUserType.EMPLOYER, salaries)
+            );
+        }
+    }
+
+    /**
+     * The reference creates its middlewares in the constructor, before configure() sets the end of employment,
+     * so the end of employment is never applied. Create them again, as calculate() does since the baseline.
+     */
+    private static void applyEndOfEmploymentAfterConstruction(service.reference.MPFAmtCalculator calculator) throws Exception {
+        Field logic = service.reference.MPFAmtCalculator.class.getDeclaredField("logic");
+        logic.setAccessible(true);
+        ((MPFPayrollDateCalculatorLogic) logic.get(calculator)).resetMiddlewares();
+    }
+
+    private static service.reference.PayrollFrequency referenceFrequency(RosterRecord record) {
+        return service.reference.PayrollFrequency.valueOf(record.getFrequency().name());
+    }
+
+    /**
+     * Compare period by period, amounts are compared by value so fixed-point amounts of another scale match.
+     */
+    private static String firstDivergence(List<MPFAmtResult> eeReference, List<MPFAmtResult> erReference,
+                                          List<MPFAmtResult> eeOptimised, List<MPFAmtResult> erOptimised) {
+        int size = Math.max(erReference.size(), erOptimised.size());
+        for (int i = 0; i < size; i++) {
+            if (i >= erReference.size() || i >= erOptimised.size()
+                    || !erReference.get(i).getContributionPeriod().equals(erOptimised.get(i).getContributionPeriod())
+                    || erReference.get(i).getAmount().compareTo(erOptimised.get(i).getAmount()) != 0
+                    || eeReference.get(i).getAmount().compareTo(eeOptimised.get(i).getAmount()) != 0) {
+                return "diverges at period " + i + " of " + erReference.size() + "/" + erOptimised.size()
+                        + "\n    reference " + describe(eeReference, erReference, i)
+                        + "\n    optimised " + describe(eeOptimised, erOptimised, i);
+            }
+        }
+        return null;
+    }
+
+    private static String describe(List<MPFAmtResult> ee, List<MPFAmtResult> er, int i) {
+        if (i >= er.size()) {
+            return "no period";
+        }
+        ContributionPeriod p = er.get(i).getContributionPeriod();
+        return p.getStartDate() + " to " + p.getEndDate()
+                + " salary " + er.get(i).getSalary().toPlainString()
+                + " ee " + ee.get(i).getAmount().toPlainString()
+                + " er " + er.get(i).getAmount().toPlainString();
+    }
+
+    /**
+     * New Year, Christmas and ten random days a year over the hire dates and the schedules after them
+     */
+    private List<LocalDate> randomHolidays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (int year = FIRST_HIRE_DATE.getYear() - 1; year <= FIRST_HIRE_DATE.getYear() + HIRE_DAYS / 365 + 2; year++) {
+            days.add(LocalDate.of(year, 1, 1));
+            days.add(LocalDate.of(year, 12, 25));
+            days.add(LocalDate.of(year, 12, 26));
+            for (int i = 0; i < 10; i++) {
+                days.add(LocalDate.ofYearDay(year, 1 + random.nextInt(365)));
+            }
+        }
+        return days.stream().sorted().distinct().toList();
+    }
+
+    private RosterRecord randomEmployee(String employeeId) {
+        PayrollFrequency frequency = PayrollFrequency.values()[random.nextInt(PayrollFrequency.values().length)];
+
+        LocalDate hire = random.nextBoolean()
+                ? holidays.get(random.nextInt(holidays.size())).plusDays(random.nextInt(7) - 3)
+                : FIRST_HIRE_DATE.plusDays(random.nextInt(HIRE_DAYS));
+        LocalDate birth = switch (random.nextInt(4)) {
+            case 0 -> hire.minusYears(18).plusDays(random.nextInt(121) - 60);
+            case 1 -> hire.minusYears(65).plusDays(random.nextInt(121) - 60);
+            case 2 -> hire.minusYears(65).plusDays(random.nextInt(400));
+            default -> hire.minusYears(19 + random.nextInt(45)).minusDays(random.nextInt(365));
+        };
+        String end = random.nextInt(10) < 3 ? hire.plusDays(random.nextInt(400)).toString() : "";
+        String morePeriod = random.nextBoolean() ? Integer.toString(1 + random.nextInt(6)) : "";
+        String cycle = switch (frequency) {
+            case WEEKLY -> DayOfWeek.of(1 + random.nextInt(7)).name();
+            case FORTNIGHTLY -> hire.plusDays(random.nextInt(81) - 40).toString();
+            case NON_CALENDAR_MONTH -> Integer.toString(1 + random.nextInt(31));
+            case MONTHLY, SEMI_MONTHLY -> "";
+        };
+        return RosterRecord.parse(String.join(",",
+                employeeId, frequency.name(), birth.toString(), hire.toString(), end, morePeriod, cycle,
+                randomSalary().toPlainString()));
+    }
+
+    /**
+     * a salary at a threshold of the month or of a number of days, one cent off it, or anywhere below 50000
+     */
+    private BigDecimal randomSalary() {
+        BigDecimal cent = new BigDecimal("0.01");
+        BigDecimal offset = cent.multiply(BigDecimal.valueOf(random.nextInt(3) - 1));
+        return switch (random.nextInt(4)) {
+            case 0 -> MPFCalculatorConstants.G_INT_MIN_CALENDAR_MONTH.add(offset);
+            case 1 -> MPFCalculatorConstants.G_INT_MAX_CALENDAR_MONTH.add(offset);
+            case 2 -> (random.nextBoolean() ? MPFCalculatorConstants.G_INT_MIN_DAY : MPFCalculatorConstants.G_INT_MAX_DAY)
+                    .multiply(BigDecimal.valueOf(1 + random.nextInt(31)))
+                    .add(offset);
+            default -> BigDecimal.valueOf(random.nextInt(5_000_000), 2);
+        };
+    }
+
+    /**
+     * An engine to compare the optimised paths with, the employee and employer amounts of an employee.
+     */
+    @FunctionalInterface
+    private interface Engine {
+        List<List<MPFAmtResult>> calculate(RosterRecord record) throws Exception;
+    }
+
+    /**
+     * Behaviour fixed since the baseline. The reference is expected to differ on the employees a rule applies
+     * to, a divergence from the reference on any other employee fails the test.
+     */
+    private enum Divergence {
+        /**
+         * The 65th birthday is dateOfBirth.plusYears(65). The reference takes the 66th birthday when the birthday
+         * is later in the year than the date of employment, and fails on 29 February.
+         */
+        AGE_65_BY_PLUS_YEARS {
+            @Override
+            boolean appliesTo(RosterRecord record) {
+                LocalDate birth = record.getConfig().getDateOfBirth();
+                LocalDate employment = record.getConfig().getDateOfEmployment();
+                if (birth.getMonth() == Month.FEBRUARY && birth.getDayOfMonth() == 29) {
+                    return true;
+                }
+                LocalDate age65Date = birth.plusYears(65);
+                LocalDate referenceDate = MonthDay.from(birth).isAfter(MonthDay.from(employment)) ? birth.plusYears(66) : age65Date;
+                // the schedules of the harness end within a year after the date of employment
+                return !referenceDate.equals(age65Date) && referenceDate.isAfter(employment) && age65Date.isBefore(employment.plusYears(1));
+            }
+        },
+        /**
+         * The fortnights are aligned to the payroll start date whichever side of the date of employment it is on.
+         * The reference only moves the payroll start date back, so it is right only when the date lies in the 13 days
+         * before the date of employment, and the employee is 18 by then.
+         */
+        FORTNIGHTLY_ALIGNMENT {
+            @Override
+            boolean appliesTo(RosterRecord record) {
+                if (record.getFrequency() != PayrollFrequency.FORTNIGHTLY) {
+                    return false;
+                }
+                LocalDate employment = record.getConfig().getDateOfEmployment();
+                long daysBefore = ChronoUnit.DAYS.between(record.getConfig().getPryllFnightStartDate(), employment);
+                return daysBefore < 1 || daysBefore > 13 || turns18After(record);
+            }
+        },
+        /**
+         * The reference moves back to the day after the weekly cycle with (cycle + 1) % 7, which is never a day of
+         * the week for SATURDAY, so the last period of an employee who leaves is never found.
+         */
+        WEEKLY_SATURDAY_CYCLE {
+            @Override
+            boolean appliesTo(RosterRecord record) {
+                return record.getFrequency() == PayrollFrequency.WEEKLY
+                        && record.getConfig().getWeeklyCycle() == DayOfWeek.SATURDAY
+                        && record.getConfig().getEndOfEmployment() != null;
+            }
+        },
+        /**
+         * A non-calendar month runs from the day after the start day to the start day, or to the end of a shorter
+         * month. The reference starts the periods of the 18th birthday and of the end of employment on the start day
+         * itself, and fails on a start day missing in a month.
+         */
+        NON_CALENDAR_BOUNDARY {
+            @Override
+            boolean appliesTo(RosterRecord record) {
+                return record.getFrequency() == PayrollFrequency.NON_CALENDAR_MONTH
+                        && (record.getConfig().getNonCalStartDay() >= 28
+                        || record.getConfig().getEndOfEmployment() != null
+                        || turns18After(record));
+            }
+        };
+
+        abstract boolean appliesTo(RosterRecord record);
+
+        /**
+         * @return the first rule which applies to the employee, null if none does
+         */
+        static Divergence of(RosterRecord record) {
+            for (Divergence rule : values()) {
+                if (rule.appliesTo(record)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        private static boolean turns18After(RosterRecord record) {
+            return record.getConfig().getDateOfBirth().plusYears(18).isAfter(record.getConfig().getDateOfEmployment());
+        }
+    }
+}
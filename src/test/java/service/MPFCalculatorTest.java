@@ -1,21 +1,75 @@
 package service;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.constant.MPFCalculatorConstants;
 import org.example.dto.ContributionPeriod;
 import org.example.dto.ContributionPeriodMore;
+import org.example.dto.EmployeeResult;
+import org.example.dto.MPFAmtResult;
+import org.example.dto.ProjectionTotal;
+import org.example.dto.RemittanceTotal;
+import org.example.dto.RosterRecord;
 import org.example.enums.CalUserType;
 import org.example.enums.PayrollFrequency;
+import org.example.service.batch.CsvResultSubscriber;
+import org.example.service.batch.RosterBatchRunner;
+import org.example.service.batch.RosterCalculationProcessor;
+import org.example.service.batch.ShardCoordinator;
+import org.example.service.export.CalHttpServer;
+import org.example.service.export.CalService;
 import org.example.util.intf.MPFPayrollLogger;
+import org.example.util.intf.SalaryGrowthFunction;
 import org.example.util.logic.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalLong;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MPFCalculatorTest {
     private MPFPayrollLogger mpfLog;
@@ -1265,4 +1319,814 @@ public class MPFCalculatorTest {
         }
     }
 
+    @Test
+    public void testApplyEndOfEmploymentKeepsConfiguredEnd() throws Exception {
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 5))
+                .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                .setMorePeriod(OptionalLong.of(3));
+        MPFMonDateCalculator calculator = new MPFMonDateCalculator(publicHolidays);
+        calculator.setDateOfEmployment(config.getDateOfEmployment());
+        calculator.setDateOfBirth(config.getDateOfBirth());
+        calculator.setMorePeriod(config.getMorePeriod());
+
+        ContributionPeriodMore schedule = calculator.calculate();
+        ContributionPeriodMore rectified = calculator.applyEndOfEmployment(schedule, LocalDate.of(2025, 4, 15));
+
+        assertEquals(LocalDate.of(2025, 4, 15), rectified.get(rectified.size() - 1).getEndDate());
+        assertEquals(null, calculator.getEndOfEmployment());
+        assertEquals(schedule.getPeriodMore(), calculator.calculate().getPeriodMore());
+    }
+
+    @Test
+    public void testCachedScheduleIsUnmodifiable() throws Exception {
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 5))
+                .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                .setMorePeriod(OptionalLong.of(3));
+        ContributionPeriodMore schedule = new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays, config).calculateDate();
+        ScheduleCache cache = new ScheduleCache(publicHolidays);
+        CalculationKey key = new CalculationKey(PayrollFrequency.MONTHLY, cache.getCalendarVersion(), config);
+        cache.put(key, schedule);
+
+        schedule.get(0).setEndDate(LocalDate.of(2025, 1, 6));
+        ContributionPeriodMore cached = cache.get(key);
+        assertEquals(LocalDate.of(2025, 1, 31), cached.get(0).getEndDate());
+        assertThrows(UnsupportedOperationException.class, () -> cached.get(0).setEndDate(LocalDate.of(2025, 1, 6)));
+        assertThrows(UnsupportedOperationException.class, () -> cached.setPeriodMore(List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> cached.getPeriod().clear());
+    }
+
+    @Test
+    public void testScheduleCacheEvictsAndSurvivesCorruptedSnapshot(@TempDir Path dir) throws Exception {
+        ScheduleCache cache = new ScheduleCache(publicHolidays, 2);
+        CalculationKey[] keys = new CalculationKey[3];
+        for (int i = 0; i < keys.length; i++) {
+            MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                    .setDateOfEmployment(LocalDate.of(2025, 1, 5 + i))
+                    .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                    .setMorePeriod(OptionalLong.of(2));
+            keys[i] = new CalculationKey(PayrollFrequency.MONTHLY, cache.getCalendarVersion(), config);
+            cache.put(keys[i], new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays, config).calculateDate());
+        }
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getEvictions());
+        assertEquals(null, cache.get(keys[0]));
+
+        Path snapshot = dir.resolve("schedules.bin");
+        cache.save(snapshot);
+        assertEquals(2, new ScheduleCache(publicHolidays).load(snapshot));
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 5));
+        ScheduleCache restarted = new ScheduleCache(publicHolidays);
+        assertEquals(0, restarted.load(snapshot));
+        assertEquals(0, restarted.size());
+    }
+
+    @Test
+    public void testCalculatorFrequency() {
+        for (PayrollFrequency frequency : PayrollFrequency.values()) {
+            assertEquals(frequency, frequency.newCalculator(publicHolidays).getFrequency());
+        }
+    }
+
+    @Test
+    public void testLatencyRecorderPercentiles() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(0L, recorder.getPercentile(99));
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (long micros = 1; micros <= 1000; micros++) {
+                    recorder.record(micros * 1000);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4000L, recorder.getCount());
+        long p50 = recorder.getPercentile(50);
+        long p99 = recorder.getPercentile(99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 + 500_000 / 16, "p50 " + p50);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 + 990_000 / 16, "p99 " + p99);
+    }
+
+    @Test
+    public void testRosterRecordRejectsFractionalCents() {
+        assertEquals(new BigDecimal("5000.10"), RosterRecord.parse("E1,MONTHLY,1985-05-19,2025-08-06,,3,,5000.10").getSalary());
+        assertEquals(new BigDecimal("5000.100"), RosterRecord.parse("E1,MONTHLY,1985-05-19,2025-08-06,,3,,5000.100").getSalary());
+        assertThrows(IllegalArgumentException.class, () -> RosterRecord.parse("E1,MONTHLY,1985-05-19,2025-08-06,,3,,5000.105"));
+    }
+
+    @Test
+    public void testThe65thAgeDate() {
+        MPFMonDateCalculator calculator = new MPFMonDateCalculator(publicHolidays);
+        // employed before the birthday in the year of the 65th birthday, the old calculation gave the 66th
+        calculator.setDateOfBirth(LocalDate.of(1960, 3, 1));
+        calculator.setDateOfEmployment(LocalDate.of(2025, 2, 1));
+        assertEquals(LocalDate.of(2025, 3, 1), calculator.getThe65thAgeDate());
+
+        calculator.setDateOfEmployment(LocalDate.of(2010, 6, 1));
+        assertEquals(LocalDate.of(2025, 3, 1), calculator.getThe65thAgeDate());
+
+        // the old calculation failed on a 29 February birthday
+        calculator.setDateOfBirth(LocalDate.of(1960, 2, 29));
+        assertEquals(LocalDate.of(2025, 2, 28), calculator.getThe65thAgeDate());
+    }
+
+    @Test
+    public void testLoadHolidaysVerifiesCompiledCalendarOnRequest(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("holidays.cal");
+        HolidayCalendar.compile(publicHolidays, file);
+        assertEquals(publicHolidays.size(), RosterBatchRunner.loadHolidays(file).size());
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        // only the header is read by default, the full check is opt-in
+        assertEquals(publicHolidays.size(), RosterBatchRunner.loadHolidays(file).size());
+        System.setProperty("mpf.holidays.verify", "true");
+        try {
+            assertThrows(IllegalStateException.class, () -> RosterBatchRunner.loadHolidays(file));
+        } finally {
+            System.clearProperty("mpf.holidays.verify");
+        }
+    }
+
+    @Test
+    public void testFortnightlyAnchorAlignedWithEmployment() throws Exception {
+        // the anchor on the date of employment, two fortnights before it and one fortnight after it
+        ContributionPeriodMore expected = null;
+        for (LocalDate anchor : List.of(LocalDate.of(2025, 1, 2), LocalDate.of(2024, 12, 5), LocalDate.of(2025, 1, 16))) {
+            MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                    .setDateOfEmployment(LocalDate.of(2025, 1, 2))
+                    .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                    .setMorePeriod(OptionalLong.of(2))
+                    .setPryllFnightStartDate(anchor);
+            ContributionPeriodMore schedule = new MPFAmtCalculator(PayrollFrequency.FORTNIGHTLY, publicHolidays, config).calculateDate();
+
+            assertEquals(new ContributionPeriod(LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 15)), schedule.get(0));
+            assertEquals(2, schedule.getPeriodMore().size());
+            for (int i = 0; i < schedule.size(); i++) {
+                ContributionPeriod p = schedule.get(i);
+                assertEquals(p.getStartDate().plusDays(13), p.getEndDate());
+                if (i > 0) {
+                    assertEquals(schedule.get(i - 1).getEndDate().plusDays(1), p.getStartDate());
+                }
+            }
+            if (expected == null) {
+                expected = schedule;
+            }
+            assertEquals(expected, schedule);
+        }
+    }
+
+    @Test
+    public void testCalculatorPoolKeepsCalculatorsOfOtherHolidays() {
+        CalculatorPool pool = new CalculatorPool(MPFMonDateCalculator::new, 2);
+        List<LocalDate> otherHolidays = List.of(LocalDate.of(2025, 12, 25));
+        MPFPayrollDateCalculatorLogic calculator = pool.acquire(publicHolidays);
+        pool.release(calculator);
+
+        pool.release(pool.acquire(otherHolidays));
+        assertEquals(2, pool.getIdleCount());
+        assertSame(calculator, pool.acquire(publicHolidays));
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testCalendarVersion(@TempDir Path dir) throws Exception {
+        // these two calendars had the same version under the 31-polynomial hash
+        List<LocalDate> first = List.of(LocalDate.ofEpochDay(0), LocalDate.ofEpochDay(62));
+        List<LocalDate> second = List.of(LocalDate.ofEpochDay(1), LocalDate.ofEpochDay(31));
+        assertNotEquals(ScheduleCache.calendarVersion(first), ScheduleCache.calendarVersion(second));
+        assertEquals(ScheduleCache.calendarVersion(first), ScheduleCache.calendarVersion(List.of(first.get(1), first.get(0), first.get(1))));
+
+        Path file = dir.resolve("holidays.cal");
+        HolidayCalendar.compile(publicHolidays, file);
+        assertEquals(ScheduleCache.calendarVersion(publicHolidays), HolidayCalendar.open(file).getVersion());
+    }
+
+    @Test
+    public void testCachedResultsAreUnmodifiable() throws Exception {
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 5))
+                .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                .setMorePeriod(OptionalLong.of(3));
+        AmountResultCache resultCache = new AmountResultCache(16, 1600, 10, TimeUnit.MINUTES);
+        MPFAmtCalculator calculator = new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays, config).setResultCache(resultCache);
+        ContributionPeriodMore schedule = calculator.calculateDate();
+        BigDecimal[] salaries = new BigDecimal[schedule.size()];
+        Arrays.fill(salaries, new BigDecimal("20000"));
+
+        List<MPFAmtResult> first = calculator.calculateAmount(CalUserType.EMPLOYER, salaries);
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).setAmount(BigDecimal.ZERO));
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).getContributionPeriod().setEndDate(LocalDate.of(2025, 1, 6)));
+        assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+
+        List<MPFAmtResult> second = calculator.calculateAmount(CalUserType.EMPLOYER, salaries);
+        assertEquals(1L, resultCache.getHits());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testStreamStopsWhenDownstreamCancels() throws Exception {
+        AtomicInteger calculated = new AtomicInteger();
+        CalService calService = new CalService(publicHolidays) {
+            @Override
+            public EmployeeResult calculateAmount(RosterRecord record) throws Exception {
+                calculated.incrementAndGet();
+                return super.calculateAmount(record);
+            }
+        };
+        AtomicInteger writes = new AtomicInteger();
+        CsvResultSubscriber subscriber = new CsvResultSubscriber(new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                if (writes.incrementAndGet() > 5) {
+                    throw new IOException("disk full");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        RosterCalculationProcessor processor = new RosterCalculationProcessor(calService, 2, 2);
+        processor.subscribe(subscriber);
+        try (SubmissionPublisher<RosterRecord> roster = new SubmissionPublisher<>()) {
+            roster.subscribe(processor);
+            for (int i = 0; i < 10_000 && roster.hasSubscribers(); i++) {
+                roster.submit(RosterRecord.parse("E" + i + ",MONTHLY,1985-05-19,2025-08-06,,3,,5000"));
+            }
+        }
+
+        assertThrows(ExecutionException.class, () -> subscriber.getResult().get(10, TimeUnit.SECONDS));
+        assertTrue(calculated.get() < 100, "calculated " + calculated.get());
+    }
+
+    @Test
+    public void testRemittanceAggregatorGrowsPastCollisions() {
+        RemittanceAggregator aggregator = new RemittanceAggregator();
+        TreeMap<LocalDate, long[]> expected = new TreeMap<>();
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        // consecutive days and days 64 apart, far more than the initial 64 slots, so keys collide and the table grows
+        for (int i = 0; i < 500; i++) {
+            for (LocalDate day : new LocalDate[]{first.plusDays(i), first.plusDays(64L * i)}) {
+                aggregator.add(day, new BigDecimal(i), new BigDecimal(2 * i), new BigDecimal(100));
+                long[] totals = expected.computeIfAbsent(day, d -> new long[4]);
+                totals[0] += i;
+                totals[1] += 2 * i;
+                totals[2] += 100;
+                totals[3]++;
+            }
+        }
+
+        assertEquals(expected.size(), aggregator.size());
+        List<RemittanceTotal> totals = aggregator.getTotals();
+        assertEquals(new ArrayList<>(expected.keySet()), totals.stream().map(RemittanceTotal::getPeriodStart).collect(Collectors.toList()));
+        for (RemittanceTotal total : totals) {
+            long[] e = expected.get(total.getPeriodStart());
+            assertEquals(BigDecimal.valueOf(e[0]).setScale(4), total.getEeAmount());
+            assertEquals(BigDecimal.valueOf(e[1]).setScale(4), total.getErAmount());
+            assertEquals(BigDecimal.valueOf(e[2]).setScale(4), total.getRelevantIncome());
+            assertEquals((int) e[3], total.getHeadcount());
+        }
+    }
+
+    @Test
+    public void testRemittanceAggregatorMergeAndRoundTrip() throws IOException {
+        RemittanceAggregator single = new RemittanceAggregator();
+        RemittanceAggregator left = new RemittanceAggregator();
+        RemittanceAggregator right = new RemittanceAggregator();
+        Random random = new Random(27);
+        for (int i = 0; i < 1000; i++) {
+            LocalDate day = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(300));
+            BigDecimal ee = BigDecimal.valueOf(random.nextInt(150_000), 2);
+            BigDecimal er = BigDecimal.valueOf(random.nextInt(150_000), 2);
+            BigDecimal income = BigDecimal.valueOf(random.nextInt(3_000_000), 2);
+            single.add(day, ee, er, income);
+            (i % 3 == 0 ? left : right).add(day, ee, er, income);
+        }
+
+        RemittanceAggregator merged = new RemittanceAggregator().merge(left).merge(right);
+        assertEquals(single.getTotals().toString(), merged.getTotals().toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        merged.writeTo(new DataOutputStream(bytes));
+        RemittanceAggregator read = RemittanceAggregator.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(single.size(), read.size());
+        assertEquals(single.getTotals().toString(), read.getTotals().toString());
+    }
+
+    @Test
+    public void testRemittanceAggregatorRoundsHalfUp() {
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        RemittanceAggregator aggregator = new RemittanceAggregator()
+                .add(day, new BigDecimal("0.00005"), new BigDecimal("0.00004"), new BigDecimal("1.23455"))
+                .add(day.plusDays(1), new BigDecimal("-0.00005"), new BigDecimal("0.000049999"), new BigDecimal("2"));
+
+        List<RemittanceTotal> totals = aggregator.getTotals();
+        assertEquals(new BigDecimal("0.0001"), totals.get(0).getEeAmount());
+        assertEquals(new BigDecimal("0.0000"), totals.get(0).getErAmount());
+        assertEquals(new BigDecimal("1.2346"), totals.get(0).getRelevantIncome());
+        assertEquals(new BigDecimal("-0.0001"), totals.get(1).getEeAmount());
+        assertEquals(new BigDecimal("0.0000"), totals.get(1).getErAmount());
+        assertEquals(new BigDecimal("2.0000"), totals.get(1).getRelevantIncome());
+    }
+
+    /**
+     * write a roster of MONTHLY employees, the ids are not in order so the shards interleave when merged
+     */
+    private static Path writeRoster(Path roster, int employees) throws IOException {
+        StringBuilder lines = new StringBuilder("# roster\n");
+        for (int i = 0; i < employees; i++) {
+            lines.append(String.format("E%04d,MONTHLY,1985-05-19,2025-01-06,,3,,%d%n", i * 7919 % 10_000, 5000 + 1000 * i));
+        }
+        return Files.writeString(roster, lines);
+    }
+
+    @Test
+    public void testShardPartitionRoutesByEmployeeId(@TempDir Path dir) throws IOException {
+        Path roster = writeRoster(dir.resolve("roster.csv"), 40);
+        ShardCoordinator coordinator = new ShardCoordinator(3, 0, dir.resolve("work"), null);
+
+        List<Path> inputs = coordinator.partition(roster);
+
+        assertEquals(3, inputs.size());
+        int lines = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            for (String line : Files.readAllLines(inputs.get(i))) {
+                assertEquals(i, coordinator.shardOf(RosterRecord.parse(line).getEmployeeId()));
+                lines++;
+            }
+        }
+        assertEquals(40, lines);
+    }
+
+    @Test
+    public void testShardRetriesFailedAndHungShardsAndMergesInOrder(@TempDir Path dir) throws Exception {
+        Path roster = writeRoster(dir.resolve("roster.csv"), 40);
+        Path expected = dir.resolve("expected.csv");
+        new RosterBatchRunner(publicHolidays).run(roster, expected);
+
+        Map<Path, Integer> attempts = new ConcurrentHashMap<>();
+        ShardCoordinator coordinator = new ShardCoordinator(3, 1, dir.resolve("work"), null) {
+            @Override
+            protected Process startShard(Path input, Path output, Path log) throws IOException {
+                int attempt = attempts.merge(input, 1, Integer::sum);
+                String shard = input.getFileName().toString();
+                // shard 0 fails and shard 1 hangs on the first attempt, every other attempt calculates in process
+                if (attempt == 1 && shard.equals("shard-0.csv")) {
+                    return startShardStub(log, "1");
+                }
+                if (attempt == 1 && shard.equals("shard-1.csv")) {
+                    return startShardStub(log, "hang");
+                }
+                try {
+                    new RosterBatchRunner(publicHolidays).run(input, output);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+                return startShardStub(log, "0");
+            }
+        }.setShardTimeout(3, TimeUnit.SECONDS);
+
+        Path output = dir.resolve("output.csv");
+        RemittanceAggregator totals = coordinator.run(roster, output);
+
+        assertEquals(Files.readString(expected), Files.readString(output));
+        assertEquals(40, totals.getTotals().stream().mapToInt(RemittanceTotal::getHeadcount).max().getAsInt());
+        assertEquals(Map.of(0, 2, 1, 2, 2, 1), attempts.entrySet().stream().collect(Collectors.toMap(
+                e -> Integer.parseInt(e.getKey().getFileName().toString().replaceAll("\\D", "")), Map.Entry::getValue)));
+        try (Stream<Path> left = Files.list(dir.resolve("work"))) {
+            assertEquals(0L, left.count());
+        }
+    }
+
+    @Test
+    public void testShardLogsOfEveryAttemptAreKept(@TempDir Path dir) throws Exception {
+        Path roster = writeRoster(dir.resolve("roster.csv"), 5);
+        ShardCoordinator coordinator = new ShardCoordinator(1, 1, dir.resolve("work"), null) {
+            @Override
+            protected Process startShard(Path input, Path output, Path log) throws IOException {
+                return startShardStub(log, "1");
+            }
+        };
+
+        assertThrows(IOException.class, () -> coordinator.run(roster, dir.resolve("output.csv")));
+        assertTrue(Files.readString(dir.resolve("work").resolve("shard-0-0.log")).contains("shard stub exits with 1"));
+        assertTrue(Files.readString(dir.resolve("work").resolve("shard-0-1.log")).contains("shard stub exits with 1"));
+    }
+
+    private static Process startShardStub(Path log, String behaviour) throws IOException {
+        return new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ShardStub.class.getName(), behaviour)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    /**
+     * stands in for a shard process, exits with the given code or hangs
+     */
+    public static class ShardStub {
+        public static void main(String[] args) throws InterruptedException {
+            if (args[0].equals("hang")) {
+                System.out.println("shard stub hangs");
+                Thread.sleep(TimeUnit.MINUTES.toMillis(10));
+            }
+            System.out.println("shard stub exits with " + args[0]);
+            System.exit(Integer.parseInt(args[0]));
+        }
+    }
+
+    @Test
+    public void testHttpEndpoints() throws Exception {
+        CalHttpServer server = new CalHttpServer(new CalService(publicHolidays), 0).setMaxBodyBytes(200).start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            URI base = URI.create("http://127.0.0.1:" + server.getPort());
+            String line = "E1,MONTHLY,1985-05-19,2025-01-06,,3,,20000";
+
+            HttpResponse<String> ok = client.send(HttpRequest.newBuilder(base.resolve("/calculateAmount"))
+                    .POST(HttpRequest.BodyPublishers.ofString(line)).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, ok.statusCode());
+            assertEquals(new CalService(publicHolidays).calculateAmount(RosterRecord.parse(line)).toCsv(), ok.body());
+
+            HttpResponse<String> invalid = client.send(HttpRequest.newBuilder(base.resolve("/calculateAmount"))
+                    .POST(HttpRequest.BodyPublishers.ofString("E1,MONTHLY,not a date")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, invalid.statusCode());
+            assertNotEquals("null\n", invalid.body());
+
+            HttpResponse<String> get = client.send(HttpRequest.newBuilder(base.resolve("/calculateAmount")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, get.statusCode());
+
+            HttpResponse<String> tooLarge = client.send(HttpRequest.newBuilder(base.resolve("/bulk"))
+                    .POST(HttpRequest.BodyPublishers.ofString((line + "\n").repeat(5))).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(413, tooLarge.statusCode());
+
+            HttpResponse<String> postMetrics = client.send(HttpRequest.newBuilder(base.resolve("/metrics"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, postMetrics.statusCode());
+
+            HttpResponse<String> metrics = client.send(HttpRequest.newBuilder(base.resolve("/metrics")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, metrics.statusCode());
+            assertTrue(metrics.body().startsWith("endpoint,count,p50Micros,p99Micros\n"), metrics.body());
+            assertTrue(metrics.body().contains("\n/calculateAmount,3,"), metrics.body());
+            assertTrue(metrics.body().contains("\n/bulk,1,"), metrics.body());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testSingleFlightRunsConcurrentIdenticalCallsOnce() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        List<Object> results = callConcurrently(singleFlight, () -> {
+            runs.incrementAndGet();
+            return "result";
+        });
+
+        assertEquals(1, runs.get());
+        for (Object result : results) {
+            assertEquals("result", result);
+        }
+        assertEquals(0, singleFlight.inFlight());
+        assertEquals("again", singleFlight.execute("key", () -> "again"));
+    }
+
+    @Test
+    public void testSingleFlightWaitersReceiveTheLeaderFailure() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        IOException failure = new IOException("calculation failed");
+
+        List<Object> results = callConcurrently(singleFlight, () -> {
+            runs.incrementAndGet();
+            throw failure;
+        });
+
+        assertEquals(1, runs.get());
+        for (Object result : results) {
+            assertSame(failure, result);
+        }
+        assertEquals(0, singleFlight.inFlight());
+        assertEquals("again", singleFlight.execute("key", () -> "again"));
+    }
+
+    /**
+     * Call the work on 8 threads with the same key. The work waits until every thread is blocked, either in the
+     * work or waiting for it, so all calls overlap.
+     * @return the result or the exception of every thread
+     */
+    private static List<Object> callConcurrently(SingleFlight<String, String> singleFlight, Callable<String> work) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Object>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            results.add(result);
+            threads.add(new Thread(() -> {
+                try {
+                    result.complete(singleFlight.execute("key", () -> {
+                        release.await();
+                        return work.call();
+                    }));
+                } catch (Exception e) {
+                    result.complete(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, singleFlight.inFlight());
+        release.countDown();
+
+        List<Object> values = new ArrayList<>();
+        for (CompletableFuture<Object> result : results) {
+            values.add(result.get(10, TimeUnit.SECONDS));
+        }
+        return values;
+    }
+
+    @Test
+    public void testScheduleSnapshotWithFlippedBitIsIgnored(@TempDir Path dir) throws Exception {
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 5))
+                .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                .setMorePeriod(OptionalLong.of(2));
+        ScheduleCache cache = new ScheduleCache(publicHolidays);
+        CalculationKey key = new CalculationKey(PayrollFrequency.MONTHLY, cache.getCalendarVersion(), config);
+        cache.put(key, new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays, config).calculateDate());
+        Path snapshot = dir.resolve("schedules.snapshot");
+        cache.save(snapshot);
+        assertEquals(1, new ScheduleCache(publicHolidays).load(snapshot));
+
+        // the byte before the checksum is the lowest byte of the last period end, still a valid date when flipped
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - Long.BYTES - 1] ^= 1;
+        Files.write(snapshot, bytes);
+
+        ScheduleCache restarted = new ScheduleCache(publicHolidays);
+        assertEquals(0, restarted.load(snapshot));
+        assertEquals(0, restarted.size());
+    }
+
+    @Test
+    public void testMiddlewareEventsNameTheFrequency(@TempDir Path dir) throws Exception {
+        Path dump = dir.resolve("middleware.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.mpf.Middleware");
+            recording.start();
+            new MPFAmtCalculator(PayrollFrequency.WEEKLY, publicHolidays, weeklyConfig).calculateDate();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertTrue(!events.isEmpty(), "no middleware event recorded");
+        for (RecordedEvent event : events) {
+            assertEquals("WEEKLY", event.getString("frequency"));
+            assertEquals("PeriodRectificationMiddleware", event.getString("stage"));
+        }
+    }
+
+    @Test
+    public void testDayBaseKernelBatchMatchesBigDecimal() {
+        assertEquals(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), DayBaseKernel.isVectorized());
+        long minDay = DayBaseKernel.toCents(MPFCalculatorConstants.G_INT_MIN_DAY);
+        long maxDay = DayBaseKernel.toCents(MPFCalculatorConstants.G_INT_MAX_DAY);
+        List<long[]> periods = new ArrayList<>();
+        for (long days = 0; days <= 31; days++) {
+            // one cent below, at and above each threshold of the days
+            for (long threshold : new long[]{0, minDay * days, maxDay * days}) {
+                for (long offset = -1; offset <= 1; offset++) {
+                    periods.add(new long[]{days, Math.max(threshold + offset, 0)});
+                }
+            }
+        }
+        Random random = new Random(34);
+        for (int i = 0; i < 1001; i++) { // an odd count, so the vector loop leaves a tail
+            periods.add(new long[]{random.nextInt(32), random.nextInt(10_000_000)});
+        }
+        long[] days = periods.stream().mapToLong(p -> p[0]).toArray();
+        long[] salaryCents = periods.stream().mapToLong(p -> p[1]).toArray();
+
+        long[] batch = new long[days.length];
+        long[] scalar = new long[days.length];
+        DayBaseKernel.calculate(days, salaryCents, batch);
+        DayBaseKernel.calculateScalar(days, salaryCents, scalar);
+
+        for (int i = 0; i < days.length; i++) {
+            BigDecimal expected = MPFAmtCalculator.calDayBase(days[i], BigDecimal.valueOf(salaryCents[i], 2));
+            String period = days[i] + " days, " + salaryCents[i] + " cents";
+            assertEquals(0, expected.compareTo(DayBaseKernel.toAmount(batch[i])), period);
+            assertEquals(0, expected.compareTo(DayBaseKernel.toAmount(scalar[i])), period);
+        }
+        assertThrows(IllegalArgumentException.class, () -> DayBaseKernel.calculate(days, salaryCents, new long[1]));
+    }
+
+
+    @Test
+    public void testProjectionEndsInThePeriodOf65thBirthday() throws Exception {
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 2))
+                .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                .setMorePeriod(OptionalLong.of(3));
+        List<long[]> periods = new ArrayList<>();
+        ProjectionTotal total = new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays)
+                .configure(config)
+                .project(SalaryGrowthFunction.constant(2_000_000), (start, end, salary, ee, er) -> periods.add(new long[]{start, end}));
+
+        assertEquals(365, total.getPeriodCount());
+        assertEquals(periods.size(), total.getPeriodCount());
+        assertEquals(LocalDate.of(2055, 5, 31), total.getLastPeriodEnd());
+        assertEquals(LocalDate.of(2025, 1, 2).toEpochDay(), periods.get(0)[0]);
+        for (int i = 1; i < periods.size(); i++) {
+            assertEquals(periods.get(i - 1)[1] + 1, periods.get(i)[0], "gap before period " + i);
+        }
+        // the last period is the one of the 65th birthday
+        assertTrue(periods.get(periods.size() - 1)[0] <= LocalDate.of(2055, 5, 20).toEpochDay());
+    }
+
+    @Test
+    public void testProjectionIncludesThePeriodStartingOn65thBirthday() throws Exception {
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 2))
+                .setDateOfBirth(LocalDate.of(1990, 6, 1))
+                .setMorePeriod(OptionalLong.of(3));
+        ProjectionTotal total = new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays)
+                .configure(config)
+                .project(SalaryGrowthFunction.constant(2_000_000), null);
+
+        // the 65th birthday is the first day of a period, one period more than a birthday on 20 May
+        assertEquals(366, total.getPeriodCount());
+        assertEquals(LocalDate.of(2055, 6, 30), total.getLastPeriodEnd());
+    }
+
+    @Test
+    public void testProjectionStopsAtEndOfEmployment() throws Exception {
+        LocalDate endOfEmployment = LocalDate.of(2030, 3, 15);
+        MPFDateCalculatorConfig config = new MPFDateCalculatorConfig()
+                .setDateOfEmployment(LocalDate.of(2025, 1, 2))
+                .setDateOfBirth(LocalDate.of(1990, 5, 20))
+                .setMorePeriod(OptionalLong.of(3))
+                .setEndOfEmployment(endOfEmployment);
+        ProjectionTotal configured = new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays)
+                .configure(config)
+                .project(SalaryGrowthFunction.constant(2_000_000), null);
+
+        assertEquals(63, configured.getPeriodCount());
+        assertEquals(endOfEmployment, configured.getLastPeriodEnd());
+
+        // the same when the end of employment is applied after the schedule is calculated
+        MPFAmtCalculator calculator = new MPFAmtCalculator(PayrollFrequency.MONTHLY, publicHolidays)
+                .configure(config.setEndOfEmployment(null));
+        calculator.calculateDate();
+        calculator.applyEndOfEmployment(endOfEmployment);
+        ProjectionTotal applied = calculator.project(SalaryGrowthFunction.constant(2_000_000), null);
+
+        assertEquals(configured.getPeriodCount(), applied.getPeriodCount());
+        assertEquals(configured.getLastPeriodEnd(), applied.getLastPeriodEnd());
+        assertEquals(configured.getEeTotal(), applied.getEeTotal());
+        assertEquals(configured.getErTotal(), applied.getErTotal());
+    }
+
+    @Test
+    public void testAnnualGrowthRaisesOnlyUntilTheProjectionEnd() {
+        LocalDate from = LocalDate.of(2025, 1, 2);
+        // 50% a year would overflow a long within 100 years, but not within 30
+        SalaryGrowthFunction growth = SalaryGrowthFunction.annual(1_000_000, new BigDecimal("0.5"), from, LocalDate.of(2055, 5, 20));
+
+        assertEquals(1_000_000, growth.salaryCents(0, from.toEpochDay()));
+        assertEquals(1_000_000, growth.salaryCents(11, from.plusYears(1).minusDays(1).toEpochDay()));
+        assertEquals(1_500_000, growth.salaryCents(12, from.plusYears(1).toEpochDay()));
+        assertEquals(2_250_000, growth.salaryCents(24, from.plusYears(2).toEpochDay()));
+        // no raise after the projection end
+        long last = growth.salaryCents(365, LocalDate.of(2055, 5, 1).toEpochDay());
+        assertEquals(last, growth.salaryCents(400, LocalDate.of(2060, 1, 1).toEpochDay()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> SalaryGrowthFunction.annual(1_000_000, new BigDecimal("10"), from, LocalDate.of(2055, 5, 20)));
+    }
+
+
+    @Test
+    public void testRosterProcessorDeliversToSubscriberRequestingFromItsOwnThread() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        CompletableFuture<List<String>> received = new CompletableFuture<>();
+        Flow.Subscriber<EmployeeResult> subscriber = new Flow.Subscriber<>() {
+            private final List<String> ids = new ArrayList<>();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                // by then every employee is calculated and the processor is closed
+                scheduler.schedule(() -> subscription.request(1), 50, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void onNext(EmployeeResult item) {
+                ids.add(item.getEmployeeId());
+                scheduler.execute(() -> subscription.request(1));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                received.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                received.complete(ids);
+            }
+        };
+        try {
+            RosterCalculationProcessor processor = new RosterCalculationProcessor(new CalService(publicHolidays), 2, 32);
+            processor.subscribe(subscriber);
+            try (SubmissionPublisher<RosterRecord> roster = new SubmissionPublisher<>()) {
+                roster.subscribe(processor);
+                for (int i = 0; i < 20; i++) {
+                    roster.submit(RosterRecord.parse("E" + i + ",MONTHLY,1985-05-19,2025-08-06,,3,,5000"));
+                }
+            }
+
+            List<String> ids = received.get(10, TimeUnit.SECONDS);
+            assertEquals(20, ids.size());
+            assertEquals(IntStream.range(0, 20).mapToObj(i -> "E" + i).collect(Collectors.toSet()), new HashSet<>(ids));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRosterProcessorDropsEmployeesAfterFailure() {
+        RosterCalculationProcessor processor = new RosterCalculationProcessor(new CalService(publicHolidays), 2, 32);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        processor.onError(new IOException("roster unreadable"));
+
+        // the workers are shut down, an employee still sent by upstream is skipped
+        processor.onNext(RosterRecord.parse("E1,MONTHLY,1985-05-19,2025-08-06,,3,,5000"));
+    }
+
+
+    @Test
+    public void testCheckpointedRunResumesAfterFailure(@TempDir Path dir) throws Exception {
+        Path roster = writeRoster(dir.resolve("roster.csv"), 50);
+        Path expected = dir.resolve("expected.csv");
+        new RosterBatchRunner(new CalService(publicHolidays)).run(roster, expected);
+        RemittanceAggregator expectedTotals = new RosterBatchRunner(new CalService(publicHolidays))
+                .runCheckpointed(roster, dir.resolve("uninterrupted.csv"), dir.resolve("uninterrupted.journal"), 7);
+        assertEquals(-1L, Files.mismatch(expected, dir.resolve("uninterrupted.csv")));
+
+        // the 24th employee fails, after the checkpoint of 21 employees
+        AtomicInteger calls = new AtomicInteger();
+        CalService failing = new CalService(publicHolidays) {
+            @Override
+            public EmployeeResult calculateAmount(RosterRecord record) throws Exception {
+                if (calls.incrementAndGet() == 24) {
+                    throw new IOException("disk unplugged");
+                }
+                return super.calculateAmount(record);
+            }
+        };
+        Path output = dir.resolve("output.csv");
+        Path journal = dir.resolve("output.journal");
+        assertThrows(IllegalStateException.class, () -> new RosterBatchRunner(failing).runCheckpointed(roster, output, journal, 7));
+        assertTrue(Files.exists(journal));
+        // a row flushed after the checkpoint but before the failure, the resumed run drops it
+        Files.writeString(output, "E9999,partial", StandardOpenOption.APPEND);
+
+        RemittanceAggregator totals = new RosterBatchRunner(new CalService(publicHolidays)).runCheckpointed(roster, output, journal, 7);
+
+        assertEquals(-1L, Files.mismatch(expected, output));
+        assertEquals(expectedTotals.getTotals().toString(), totals.getTotals().toString());
+        assertTrue(!Files.exists(journal), "journal left behind");
+    }
 }
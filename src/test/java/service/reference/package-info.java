@@ -0,0 +1,7 @@
+/**
+ * Frozen copy of the calculators at the baseline, the reference of DifferentialHarnessTest. Only the package and
+ * the imports differ from the baseline sources, the calculators are created by the copy of PayrollFrequency.
+ * The behaviour fixes made since are not applied here, the harness names each of them as an expected divergence.
+ * Do not fix or optimise this package, it must stay an independent implementation.
+ */
+package service.reference;